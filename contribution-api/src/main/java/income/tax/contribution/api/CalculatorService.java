@@ -1,9 +1,13 @@
 package income.tax.contribution.api;
 
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
 import com.lightbend.lagom.javadsl.api.Descriptor;
 import com.lightbend.lagom.javadsl.api.Service;
 import com.lightbend.lagom.javadsl.api.ServiceCall;
+import org.pcollections.PSequence;
 
+import java.time.Month;
 import java.util.Map;
 
 import static com.lightbend.lagom.javadsl.api.Service.named;
@@ -13,11 +17,31 @@ public interface CalculatorService extends Service {
 
   ServiceCall<MonthlyIncomeRequest, Map<String, Contribution>> compute();
 
+  /**
+   * Computes the contributions of several months of a year in one call.
+   */
+  ServiceCall<YearlyIncomeRequest, Map<Month, Map<String, Contribution>>> computeYear();
+
+  /**
+   * Computes the contributions of many monthly incomes in one call.
+   * The contributions are returned in the order of the requests.
+   */
+  ServiceCall<PSequence<MonthlyIncomeRequest>, PSequence<Map<String, Contribution>>> computeBatch();
+
+  /**
+   * Computes the contributions of a stream of monthly incomes (over a WebSocket).
+   * The contributions are emitted in the order of the requests.
+   */
+  ServiceCall<Source<MonthlyIncomeRequest, NotUsed>, Source<Map<String, Contribution>, NotUsed>> computeStream();
+
   @Override
   default Descriptor descriptor() {
     return named("contribution")
         .withCalls(
-            pathCall("/api/contribution", this::compute)
+            pathCall("/api/contribution", this::compute),
+            pathCall("/api/contribution/year", this::computeYear),
+            pathCall("/api/contribution/batch", this::computeBatch),
+            pathCall("/api/contribution/stream", this::computeStream)
         )
         .withAutoAcl(true);
   }
@@ -0,0 +1,36 @@
+package income.tax.contribution.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Month;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Incomes of several months of the same year, computed in a single call.
+ */
+@Value
+@JsonDeserialize
+public class YearlyIncomeRequest {
+  public final
+  int year;
+  public final @NonNull
+  Map<Month, BigDecimal> incomes;
+  public final boolean round;
+
+  // further usage
+  public final
+  Optional<Map<String, Object>> additionalArgs;
+
+  @JsonCreator
+  public YearlyIncomeRequest(int year, Map<Month, BigDecimal> incomes, boolean round, Optional<Map<String, Object>> additionalArgs) {
+    this.year = year;
+    this.incomes = incomes;
+    this.round = round;
+    this.additionalArgs = additionalArgs;
+  }
+}
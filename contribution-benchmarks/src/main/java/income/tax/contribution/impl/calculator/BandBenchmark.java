@@ -0,0 +1,50 @@
+package income.tax.contribution.impl.calculator;
+
+import income.tax.contribution.impl.Calculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The contribution of a single band (see {@link BaseCalculator.ContributionType}), composites included.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BandBenchmark {
+
+  private static final int INCOME_COUNT = 1024;
+
+  @Param({"2018", "2019"})
+  int year;
+
+  @Param({"LOW", "MID", "HIGH"})
+  IncomeDistribution distribution;
+
+  @Param({"MLD1T2", "MLD1T1", "MAL1", "MAL2", "RVB T1", "RVB T2", "RVB", "RCI T1", "RCI T2", "RCI", "RID", "AF", "CSG/CRDS"})
+  String band;
+
+  private Calculator.ContributionConfig contributionConfig;
+  private BigDecimal[] incomes;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    BaseCalculator calculator = year == 2018 ? new Calculator2018() : new Calculator2019();
+    contributionConfig = calculator.contributionConfigs().get(band);
+    if (contributionConfig == null) {
+      throw new IllegalArgumentException("Unknown band: " + band);
+    }
+    incomes = distribution.incomes(calculator.pass, INCOME_COUNT, year);
+  }
+
+  @Benchmark
+  public BigDecimal compute() {
+    next = (next + 1) & (INCOME_COUNT - 1);
+    return contributionConfig.compute(incomes[next]);
+  }
+}
@@ -0,0 +1,24 @@
+package income.tax.contribution.impl.calculator;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler (allocation rate), any JMH command line option can be added.
+ * <p>
+ * {@code java -jar contribution-benchmarks/target/benchmarks.jar [BandBenchmark] [-p year=2019]}
+ */
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    new Runner(
+        new OptionsBuilder()
+            .parent(commandLineOptions)
+            .addProfiler(GCProfiler.class)
+            .build()
+    ).run();
+  }
+}
@@ -0,0 +1,64 @@
+package income.tax.contribution.impl.calculator;
+
+import income.tax.contribution.impl.ContributionInternal;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Month;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * All the contributions of an income, as computed by the contribution service.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CalculatorBenchmark {
+
+  private static final int INCOME_COUNT = 1024;
+  private static final BigDecimal MONTH_COUNT = BigDecimal.valueOf(12);
+
+  @Param({"2018", "2019"})
+  int year;
+
+  @Param({"LOW", "MID", "HIGH"})
+  IncomeDistribution distribution;
+
+  @Param({"false", "true"})
+  boolean round;
+
+  private BaseCalculator calculator;
+  private BigDecimal[] yearlyIncomes;
+  private BigDecimal[] monthlyIncomes;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    calculator = year == 2018 ? new Calculator2018() : new Calculator2019();
+    yearlyIncomes = distribution.incomes(calculator.pass, INCOME_COUNT, year);
+    monthlyIncomes = new BigDecimal[INCOME_COUNT];
+    for (int i = 0; i < INCOME_COUNT; i++) {
+      monthlyIncomes[i] = yearlyIncomes[i].divideToIntegralValue(MONTH_COUNT);
+    }
+  }
+
+  @Benchmark
+  public Map<String, ContributionInternal> computeFromYearlyIncome() {
+    return calculator.computeFromYearlyIncome(yearlyIncomes[nextIndex()], round);
+  }
+
+  @Benchmark
+  public Map<String, ContributionInternal> computeFromMonthlyIncome() {
+    return calculator.computeFromMonthlyIncome(Month.MAY, monthlyIncomes[nextIndex()], round, Optional.empty());
+  }
+
+  private int nextIndex() {
+    next = (next + 1) & (INCOME_COUNT - 1);
+    return next;
+  }
+}
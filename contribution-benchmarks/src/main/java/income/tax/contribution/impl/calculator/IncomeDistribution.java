@@ -0,0 +1,37 @@
+package income.tax.contribution.impl.calculator;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Yearly incomes drawn uniformly from a range of PASS multiples.
+ */
+public enum IncomeDistribution {
+  // below 0.4 x PASS: minimum bases
+  LOW(0, 0.4),
+  // between 0.4 x PASS and 5 x PASS: the income based bands
+  MID(0.4, 5),
+  // above 5 x PASS: capped bases
+  HIGH(5, 10);
+
+  private final double from;
+  private final double to;
+
+  IncomeDistribution(double from, double to) {
+    this.from = from;
+    this.to = to;
+  }
+
+  /**
+   * Whole-euro incomes, as sent by the income service.
+   */
+  public BigDecimal[] incomes(BigDecimal pass, int count, long seed) {
+    Random random = new Random(seed);
+    BigDecimal[] incomes = new BigDecimal[count];
+    for (int i = 0; i < count; i++) {
+      double multiple = from + (to - from) * random.nextDouble();
+      incomes[i] = BigDecimal.valueOf((long) (multiple * pass.doubleValue()));
+    }
+    return incomes;
+  }
+}
@@ -4,6 +4,7 @@ import lombok.Value;
 
 import java.math.BigDecimal;
 import java.time.Month;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -12,9 +13,24 @@ public interface Calculator {
   int getYear();
   BigDecimal round(BigDecimal value);
 
-  Map<String, ContributionInternal> computeFromYearlyIncome(BigDecimal income, boolean round);
-
-  Map<String, ContributionInternal> computeFromMonthlyIncome(Month month, BigDecimal income, boolean round, Optional<Map<String, Object>> additionalArgs);
+  ContributionVector computeFromYearlyIncome(BigDecimal income, boolean round);
+
+  ContributionVector computeFromMonthlyIncome(Month month, BigDecimal income, boolean round, Optional<Map<String, Object>> additionalArgs);
+
+  /**
+   * Computes the contributions of several months of the year in a single pass, ordered by month.
+   */
+  default Map<Month, ContributionVector>
+  computeFromMonthlyIncomes(Map<Month, BigDecimal> incomes, boolean round, Optional<Map<String, Object>> additionalArgs) {
+    Map<Month, ContributionVector> contributions = new EnumMap<>(Month.class);
+    for (Month month : Month.values()) {
+      BigDecimal income = incomes.get(month);
+      if (income != null) {
+        contributions.put(month, computeFromMonthlyIncome(month, income, round, additionalArgs));
+      }
+    }
+    return contributions;
+  }
 
   @FunctionalInterface
   interface IncomeBasedCalculator {
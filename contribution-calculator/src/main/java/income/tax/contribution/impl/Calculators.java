@@ -0,0 +1,114 @@
+package income.tax.contribution.impl;
+
+import com.typesafe.config.Config;
+import income.tax.contribution.impl.calculator.BaseCalculator;
+import income.tax.contribution.impl.calculator.ContributionTable;
+import income.tax.contribution.impl.calculator.FixedPointCalculator;
+import income.tax.contribution.impl.calculator.TabulatedCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the calculator implementations, by year.
+ * Used by the contribution service and by the services embedding the calculators.
+ */
+public final class Calculators {
+  private static Logger logger = LoggerFactory.getLogger(Calculators.class);
+
+  private Calculators() {
+  }
+
+  /**
+   * Loads the calculators, computing the {@code contribution.fixed-point.years} with a {@link FixedPointCalculator},
+   * served from precomputed tables when {@code contribution.table.enabled} is set (for the
+   * {@code contribution.table.years}, all of them when empty).
+   */
+  public static Map<Integer, Calculator> load(Config config) {
+    Map<Integer, Calculator> implementations =
+        fixedPoint(loadCalculators(), config.getIntList("contribution.fixed-point.years"));
+    if (config.getBoolean("contribution.table.enabled")) {
+      implementations = tabulate(implementations,
+          Paths.get(config.getString("contribution.table.directory")), config.getInt("contribution.table.max-income"),
+          config.getIntList("contribution.table.years"));
+    }
+    return implementations;
+  }
+
+  public static Map<Integer, Calculator> loadCalculators() {
+    final Map<Integer, Calculator> implementations = new HashMap<>();
+    ServiceLoader<Calculator> serviceLoader = ServiceLoader.load(Calculator.class);
+
+    for (Iterator<Calculator> it = serviceLoader.iterator(); it.hasNext(); ) {
+      Calculator impl = it.next();
+      logger.info("Calculator implementation found for year {}: {}", impl.getYear(), impl.getClass().getName());
+      Calculator previous = implementations.put(impl.getYear(), impl);
+      if (previous != null) {
+        logger.warn("Calculator implementation {} for year {} replaced by {}",
+            previous.getClass().getName(), impl.getYear(), impl.getClass().getName());
+      }
+    }
+    if (implementations.isEmpty()) {
+      throw new IllegalStateException("No Calculator implementations found");
+    }
+
+    // sort in the reverse order (the most recent will be the default implementation)
+    Map<Integer, Calculator> result = implementations.entrySet().stream()
+        .sorted((o1, o2) -> o2.getKey().compareTo(o1.getKey()))
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+            (oldValue, newValue) -> oldValue, LinkedHashMap::new));
+    return result;
+  }
+
+  /**
+   * Computes the contributions of the given years with a {@link FixedPointCalculator}.
+   */
+  static Map<Integer, Calculator> fixedPoint(Map<Integer, Calculator> implementations, Collection<Integer> years) {
+    Map<Integer, Calculator> result = new LinkedHashMap<>();
+    implementations.forEach((year, calculator) -> {
+      if (years.contains(year) && calculator instanceof BaseCalculator) {
+        logger.info("Fixed-point calculator selected for year {}", year);
+        result.put(year, FixedPointCalculator.of((BaseCalculator) calculator));
+      } else {
+        if (years.contains(year)) {
+          logger.warn("No fixed-point calculator for year {}: {} kept", year, calculator.getClass().getName());
+        }
+        result.put(year, calculator);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Serves whole-euro monthly incomes of the given years (all of them when empty) from a precomputed table, see
+   * {@link ContributionTable}.
+   */
+  static Map<Integer, Calculator> tabulate(
+      Map<Integer, Calculator> implementations, Path directory, int maxIncome, Collection<Integer> years) {
+    Map<Integer, Calculator> result = new LinkedHashMap<>();
+    implementations.forEach((year, calculator) -> {
+      if (!years.isEmpty() && !years.contains(year)) {
+        result.put(year, calculator);
+        return;
+      }
+      Path file = directory.resolve(String.format("contributions-%d-%d.bin", year, maxIncome));
+      try {
+        result.put(year, new TabulatedCalculator(calculator, ContributionTable.load(calculator, file, maxIncome)));
+      } catch (IOException | RuntimeException e) {
+        logger.warn("Contribution table of year {} not available, contributions will be computed", year, e);
+        result.put(year, calculator);
+      }
+    });
+    return result;
+  }
+}
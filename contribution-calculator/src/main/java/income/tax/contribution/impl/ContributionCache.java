@@ -0,0 +1,79 @@
+package income.tax.contribution.impl;
+
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Month;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, concurrent cache of monthly contributions.
+ * <p>
+ * Entries are evicted in least recently used order when the cache is full, and expire after a fixed time to live.
+ * Concurrent misses of a key compute its contributions once.
+ */
+public class ContributionCache {
+
+  private final Cache<Key, ContributionVector> entries;
+
+  public ContributionCache(int maxSize, Duration ttl) {
+    this(maxSize, ttl, Ticker.systemTicker());
+  }
+
+  ContributionCache(int maxSize, Duration ttl, Ticker ticker) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+    }
+    this.entries = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+        .ticker(ticker)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Returns the cached contributions of the key, computing them on a miss.
+   */
+  public ContributionVector get(Key key, Supplier<ContributionVector> compute) {
+    try {
+      return entries.get(key, compute::get);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  public int size() {
+    return Math.toIntExact(entries.size());
+  }
+
+  public Stats stats() {
+    CacheStats stats = entries.stats();
+    return new Stats(stats.hitCount(), stats.missCount(), stats.evictionCount());
+  }
+
+  @Value
+  public static class Key {
+    public final int year;
+    public final Month month;
+    public final BigDecimal income;
+    public final boolean round;
+  }
+
+  @Value
+  public static class Stats {
+    public final long hits;
+    public final long misses;
+    public final long evictions;
+  }
+}
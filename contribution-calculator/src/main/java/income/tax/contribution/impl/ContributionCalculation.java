@@ -0,0 +1,109 @@
+package income.tax.contribution.impl;
+
+import com.typesafe.config.Config;
+import income.tax.contribution.api.Contribution;
+import income.tax.contribution.api.MonthlyIncomeRequest;
+import income.tax.contribution.api.YearlyIncomeRequest;
+import org.pcollections.HashTreePMap;
+import org.pcollections.PMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Month;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Computes contributions with the calculator of the requested year, through the contribution cache when it is
+ * enabled ({@code contribution.cache}).
+ * <p>
+ * The computations run on the calling thread: the services embedding the calculators choose their executor.
+ */
+@Singleton
+public class ContributionCalculation {
+
+  private static Logger logger = LoggerFactory.getLogger(ContributionCalculation.class);
+
+  private final Map<Integer, Calculator> calculators;
+  private final Optional<ContributionCache> cache;
+
+  @Inject
+  public ContributionCalculation(Map<Integer, Calculator> calculators, Config config) {
+    this.calculators = calculators;
+    this.cache = config.getBoolean("contribution.cache.enabled")
+        ? Optional.of(new ContributionCache(
+            config.getInt("contribution.cache.max-size"), config.getDuration("contribution.cache.ttl")))
+        : Optional.empty();
+  }
+
+  public Map<String, Contribution> compute(MonthlyIncomeRequest monthlyIncomeRequest) {
+    return convertInternalContribution(doCompute(monthlyIncomeRequest));
+  }
+
+  public Map<Month, Map<String, Contribution>> computeYear(YearlyIncomeRequest yearlyIncomeRequest) {
+    Calculator calculator = getCalculator(yearlyIncomeRequest.year);
+    return convertInternalContributions(calculator.computeFromMonthlyIncomes(
+        yearlyIncomeRequest.incomes,
+        yearlyIncomeRequest.round,
+        yearlyIncomeRequest.additionalArgs));
+  }
+
+  private ContributionVector doCompute(MonthlyIncomeRequest monthlyIncomeRequest) {
+    // additional arguments are not part of the key: such requests are always computed
+    if (!cache.isPresent() || monthlyIncomeRequest.additionalArgs.isPresent()) {
+      return computeMonthlyIncome(monthlyIncomeRequest);
+    }
+    ContributionCache.Key key = new ContributionCache.Key(
+        monthlyIncomeRequest.year, monthlyIncomeRequest.month, monthlyIncomeRequest.income, monthlyIncomeRequest.round);
+    return cache.get().get(key, () -> {
+      logger.debug("Contribution cache miss for {}, {}", key, cache.get().stats());
+      return computeMonthlyIncome(monthlyIncomeRequest);
+    });
+  }
+
+  private ContributionVector computeMonthlyIncome(MonthlyIncomeRequest monthlyIncomeRequest) {
+    Calculator calculator = getCalculator(monthlyIncomeRequest.year);
+    return calculator.computeFromMonthlyIncome(
+        monthlyIncomeRequest.month,
+        monthlyIncomeRequest.income,
+        monthlyIncomeRequest.round,
+        monthlyIncomeRequest.additionalArgs);
+  }
+
+  private Calculator getCalculator(int year) {
+    logger.debug("Configured calculators: {}", calculators);
+    Calculator calculator = calculators.get(year);
+    if (calculator == null) {
+      Optional<Calculator> maybeCalculator = calculators.values().stream().findFirst();
+      calculator = maybeCalculator.orElseThrow(() -> new IllegalStateException("Something went really bad. No calculator defined"));
+    }
+    return calculator;
+  }
+
+  private Map<String, Contribution> convertInternalContribution(ContributionVector contributionsInternal) {
+    PMap<String, Contribution> contributions = HashTreePMap.empty();
+    for (int i = 0; i < contributionsInternal.size(); i++) {
+      String type = contributionsInternal.type(i).code();
+      contributions = contributions.plus(
+          type,
+          new Contribution(
+              type,
+              contributionsInternal.income(),
+              contributionsInternal.baseIncome(i),
+              contributionsInternal.rate(i),
+              contributionsInternal.contribution(i)));
+    }
+    return contributions;
+  }
+
+  private Map<Month, Map<String, Contribution>>
+  convertInternalContributions(Map<Month, ContributionVector> contributionsInternal) {
+    Map<Month, Map<String, Contribution>> contributions = new EnumMap<>(Month.class);
+    contributionsInternal.forEach((month, monthContributions) ->
+        contributions.put(month, convertInternalContribution(monthContributions)));
+    return HashTreePMap.from(contributions);
+  }
+}
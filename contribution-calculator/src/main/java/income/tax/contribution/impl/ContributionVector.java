@@ -0,0 +1,139 @@
+package income.tax.contribution.impl;
+
+import income.tax.contribution.impl.calculator.BaseCalculator.ContributionType;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The contributions of an income, indexed by position.
+ * <p>
+ * The contribution types are a shared constant array (the order of the contributions), the income is shared by all
+ * the contributions, and the base incomes, rates and contributions are held in parallel arrays.
+ * The vector is also a read-only {@code Map} of {@link ContributionInternal} by type code, built on access.
+ */
+public final class ContributionVector extends AbstractMap<String, ContributionInternal> {
+
+  private final ContributionType[] types;
+  private final BigDecimal income;
+  private final BigDecimal[] baseIncomes;
+  private final BigDecimal[] rates;
+  private final BigDecimal[] contributions;
+
+  private ContributionVector(ContributionType[] types, BigDecimal income,
+                             BigDecimal[] baseIncomes, BigDecimal[] rates, BigDecimal[] contributions) {
+    this.types = types;
+    this.income = income;
+    this.baseIncomes = baseIncomes;
+    this.rates = rates;
+    this.contributions = contributions;
+  }
+
+  /**
+   * Creates a vector owning the given arrays: they must not be modified afterwards.
+   */
+  public static ContributionVector of(ContributionType[] types, BigDecimal income,
+                                      BigDecimal[] baseIncomes, BigDecimal[] rates, BigDecimal[] contributions) {
+    if (baseIncomes.length != types.length || rates.length != types.length || contributions.length != types.length) {
+      throw new IllegalArgumentException("Expecting " + types.length + " contributions");
+    }
+    return new ContributionVector(types, income, baseIncomes, rates, contributions);
+  }
+
+  @Override
+  public int size() {
+    return types.length;
+  }
+
+  public ContributionType type(int index) {
+    return types[index];
+  }
+
+  public BigDecimal income() {
+    return income;
+  }
+
+  public BigDecimal baseIncome(int index) {
+    return baseIncomes[index];
+  }
+
+  public BigDecimal rate(int index) {
+    return rates[index];
+  }
+
+  public BigDecimal contribution(int index) {
+    return contributions[index];
+  }
+
+  /**
+   * Returns the position of a contribution type, -1 if the vector does not hold it.
+   */
+  public int indexOf(ContributionType type) {
+    for (int i = 0; i < types.length; i++) {
+      if (types[i] == type) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public ContributionInternal get(int index) {
+    return ContributionInternal.of(types[index].code(), income, baseIncomes[index], rates[index], contributions[index]);
+  }
+
+  @Override
+  public ContributionInternal get(Object code) {
+    int index = indexOfCode(code);
+    return index < 0 ? null : get(index);
+  }
+
+  @Override
+  public boolean containsKey(Object code) {
+    return indexOfCode(code) >= 0;
+  }
+
+  private int indexOfCode(Object code) {
+    for (int i = 0; i < types.length; i++) {
+      if (types[i].code().equals(code)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public Set<Map.Entry<String, ContributionInternal>> entrySet() {
+    return new AbstractSet<Map.Entry<String, ContributionInternal>>() {
+      @Override
+      public Iterator<Map.Entry<String, ContributionInternal>> iterator() {
+        return new Iterator<Map.Entry<String, ContributionInternal>>() {
+          private int next = 0;
+
+          @Override
+          public boolean hasNext() {
+            return next < types.length;
+          }
+
+          @Override
+          public Map.Entry<String, ContributionInternal> next() {
+            if (next >= types.length) {
+              throw new NoSuchElementException();
+            }
+            int index = next++;
+            return new SimpleImmutableEntry<>(types[index].code(), get(index));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return types.length;
+      }
+    };
+  }
+}
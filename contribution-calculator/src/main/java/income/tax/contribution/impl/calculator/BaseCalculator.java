@@ -0,0 +1,503 @@
+package income.tax.contribution.impl.calculator;
+
+import income.tax.contribution.impl.CalculationConstantProvider;
+import income.tax.contribution.impl.Calculator;
+import income.tax.contribution.impl.ContributionVector;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Month;
+import java.util.*;
+
+import static income.tax.contribution.impl.calculator.BaseCalculator.ContributionType.*;
+
+public abstract class BaseCalculator implements Calculator, CalculationConstantProvider {
+
+  final RoundingMode roundingMode;
+  final MathContext mc;
+
+  final BigDecimal pass;
+  final BigDecimal prci;
+  final BigDecimal csgRate;
+  final BigDecimal passX4;
+  final BigDecimal passX5;
+  final BigDecimal pass40percent;
+  final BigDecimal pass110;
+  final BigDecimal pass0115;
+  final BigDecimal pass140;
+
+  // slopes and caps derived from the constants, computed once (see configure())
+  final BigDecimal maladie1T1LowSlope;
+  final BigDecimal maladie1T1MidSlope;
+  final BigDecimal allocationsFamilialesSlope;
+  final BigDecimal retraiteComplémentaireT2Max;
+
+  private static final BigDecimal MONTH_COUNT = BigDecimal.valueOf(12);
+
+  // statutory rates (in percent)
+  static final BigDecimal RATE_MALADIE1_T2 = new BigDecimal("6.50");
+  static final BigDecimal RATE_MALADIE1_T1_MIN = new BigDecimal("1.35");
+  static final BigDecimal RATE_MALADIE1_T1_MAX = new BigDecimal("6.35");
+  static final BigDecimal RATE_MALADIE2 = new BigDecimal("0.85");
+  static final BigDecimal RATE_RETRAITE_T1 = new BigDecimal("17.75");
+  static final BigDecimal RATE_RETRAITE_T2 = new BigDecimal("0.6");
+  static final BigDecimal RATE_RETRAITE_COMPLEMENTAIRE_T1 = new BigDecimal("7.00");
+  static final BigDecimal RATE_RETRAITE_COMPLEMENTAIRE_T2 = new BigDecimal("8");
+  static final BigDecimal RATE_INVALIDITE_DECES = new BigDecimal("1.30");
+  static final BigDecimal RATE_ALLOCATIONS_FAMILIALES = new BigDecimal("3.10");
+  static final BigDecimal RATE_CSG_CRDS = new BigDecimal("9.7");
+  static final BigDecimal RATE_NOT_SIGNIFICANT = BigDecimal.ONE;
+
+  static final ContributionType[] contributionToBeComputed = new ContributionType[] {
+      Maladie1T1, Maladie1T2, Maladie2,
+      RetraiteT1, RetraiteT2, RetraiteComplémentaireT1, RetraiteComplémentaireT2,
+      InvalidititéDécès, AllocationsFamiliales, CSG_CRDS
+  };
+  private static final String[] contributionTypes = Arrays.stream(contributionToBeComputed)
+      .map(ContributionType::code)
+      .toArray(String[]::new);
+
+  // composite contributions: the sum of the contributions of their parts
+  static final ContributionType[] compositeContributions = new ContributionType[] {
+      Maladie1, Retraite, RetraiteComplémentaire
+  };
+  private static final ContributionType[] contributionsWithComposites = new ContributionType[] {
+      Maladie1T1, Maladie1T2, Maladie2,
+      RetraiteT1, RetraiteT2, RetraiteComplémentaireT1, RetraiteComplémentaireT2,
+      InvalidititéDécès, AllocationsFamiliales, CSG_CRDS,
+      Maladie1, Retraite, RetraiteComplémentaire
+  };
+  private static final Map<ContributionType, ContributionType[]> compositeParts = new EnumMap<>(ContributionType.class);
+
+  static {
+    compositeParts.put(Maladie1, new ContributionType[] {Maladie1T1, Maladie1T2});
+    compositeParts.put(Retraite, new ContributionType[] {RetraiteT1, RetraiteT2});
+    compositeParts.put(RetraiteComplémentaire, new ContributionType[] {RetraiteComplémentaireT1, RetraiteComplémentaireT2});
+  }
+
+  private ContributionCalculator defaultContributionCalculator
+      = (income, baseIncome, rate) -> baseIncome.multiply(rate.scaleByPowerOfTen(-2), mathContext());
+
+  private MathContext mathContext() {
+    return mc;
+  }
+
+  private Map<String, ContributionConfig> contributionConfigs = new HashMap<>();
+
+  // configurations by ContributionType ordinal
+  private final ContributionConfig[] configsByType;
+
+  public BaseCalculator(RoundingMode roundingMode, BigDecimal passConstant, BigDecimal prciConstant, BigDecimal csgConstant) {
+    this.roundingMode  = roundingMode;
+    mc = new MathContext(8, roundingMode);
+    pass = passConstant;
+    prci = prciConstant;
+    csgRate = csgConstant;
+    passX4 = pass.multiply(BigDecimal.valueOf(4));
+    passX5 = pass.multiply(BigDecimal.valueOf(5));
+    pass40percent = pass.multiply(new BigDecimal("0.4"), mc);
+    pass110 = pass.multiply(new BigDecimal("1.1"), mc);
+    pass0115 = pass.multiply(new BigDecimal("0.115"), mc);
+    pass140 = pass.multiply(new BigDecimal("1.4"), mc);
+
+    // MLD1T1 rate slopes:
+    //  ((6.35 - 1.35) / (1.1 * PASS)) + (1.35 - 0) / (0.4 * PASS) = (5/1.1 + 1.35/0.4) / PASS
+    //  (6.35 - 1.35) / (1.1 * PASS) = (5/1.1) / PASS
+    BigDecimal fiveOver110 = new BigDecimal(5).divide(new BigDecimal("1.1"), mc);
+    maladie1T1LowSlope = fiveOver110.add(RATE_MALADIE1_T1_MIN.divide(new BigDecimal("0.4"), mc)).divide(pass, mc);
+    maladie1T1MidSlope = fiveOver110.divide(pass, mc);
+    // AF rate slope: 3.10 / (0.3 * PASS)
+    allocationsFamilialesSlope = RATE_ALLOCATIONS_FAMILIALES.divide(pass.multiply(new BigDecimal("0.3"), mc), mc);
+    retraiteComplémentaireT2Max = passX4.subtract(prci, mc);
+
+    configure();
+
+    configsByType = new ContributionConfig[ContributionType.values().length];
+    for (ContributionType type : ContributionType.values()) {
+      configsByType[type.ordinal()] = contributionConfigs.get(type.code());
+    }
+  }
+
+  @Override
+  public BigDecimal round(BigDecimal value) {
+    return value.setScale(0, roundingMode);
+  }
+
+  @Override
+  public ContributionVector computeFromYearlyIncome(BigDecimal income, boolean round) {
+    return new Evaluation(income).contributions(contributionToBeComputed, round);
+  }
+
+  /**
+   * Computes the contributions of a yearly income, followed by the composite contributions (MAL1, RVB, RCI).
+   * Each band is computed once and shared with the composites including it.
+   */
+  public ContributionVector computeFromYearlyIncomeWithComposites(BigDecimal income, boolean round) {
+    return new Evaluation(income).contributions(contributionsWithComposites, round);
+  }
+
+  @Override
+  public ContributionVector
+  computeFromMonthlyIncome(
+      Month month, BigDecimal income, boolean round, Optional<Map<String, Object>> additionalArgs) {
+
+    final BigDecimal monthCount = MONTH_COUNT;
+    ContributionVector yearlyContributions = computeFromYearlyIncome(income.multiply(monthCount), round);
+    int size = yearlyContributions.size();
+    BigDecimal[] baseIncomes = new BigDecimal[size];
+    BigDecimal[] rates = new BigDecimal[size];
+    BigDecimal[] contributions = new BigDecimal[size];
+    for (int i = 0; i < size; i++) {
+      baseIncomes[i] = yearlyContributions.baseIncome(i).divide(monthCount, mc);
+      rates[i] = yearlyContributions.rate(i);
+      contributions[i] = yearlyContributions.contribution(i).divide(monthCount, mc);
+    }
+    return ContributionVector.of(contributionToBeComputed,
+        yearlyContributions.income().divide(monthCount, mc), baseIncomes, rates, contributions);
+  }
+
+  /**
+   * Evaluation of the contributions of an income: the base income and the contribution of each band are computed
+   * at most once, whatever the number of contributions depending on them.
+   */
+  private class Evaluation {
+    private final BigDecimal income;
+    private final BigDecimal[] baseIncomes = new BigDecimal[configsByType.length];
+    private final BigDecimal[] contributions = new BigDecimal[configsByType.length];
+
+    Evaluation(BigDecimal income) {
+      this.income = income;
+    }
+
+    BigDecimal baseIncome(ContributionType type) {
+      int index = type.ordinal();
+      if (baseIncomes[index] == null) {
+        baseIncomes[index] = configsByType[index].baseIncomeCalculator.compute(income);
+      }
+      return baseIncomes[index];
+    }
+
+    BigDecimal contribution(ContributionType type) {
+      int index = type.ordinal();
+      if (contributions[index] == null) {
+        ContributionType[] parts = compositeParts.get(type);
+        if (parts != null) {
+          contributions[index] = contribution(parts[0]).add(contribution(parts[1]));
+        } else {
+          ContributionConfig contributionConfig = configsByType[index];
+          contributions[index] = contributionConfig.contributionCalculator.compute(
+              income, baseIncome(type), contributionConfig.rateCalculator.compute(income));
+        }
+      }
+      return contributions[index];
+    }
+
+    ContributionVector contributions(ContributionType[] types, boolean round) {
+      BigDecimal[] baseIncomes = new BigDecimal[types.length];
+      BigDecimal[] rates = new BigDecimal[types.length];
+      BigDecimal[] contributionAmounts = new BigDecimal[types.length];
+      for (int i = 0; i < types.length; i++) {
+        BigDecimal baseIncome = baseIncome(types[i]);
+        BigDecimal contributionAmount = contribution(types[i]);
+        if (round) {
+          contributionAmount = round(contributionAmount);
+        }
+        // informative rate
+        BigDecimal rate;
+        if (baseIncome.compareTo(BigDecimal.ZERO) == 0) {
+          rate = BigDecimal.ZERO;
+        } else {
+          rate = contributionAmount.divide(baseIncome, mc).scaleByPowerOfTen(2).setScale(2, RoundingMode.CEILING);
+        }
+        baseIncomes[i] = baseIncome;
+        rates[i] = rate;
+        contributionAmounts[i] = contributionAmount;
+      }
+      return ContributionVector.of(types, income, baseIncomes, rates, contributionAmounts);
+    }
+  }
+
+  @Override
+  public BigDecimal getCalculationConstant(String name) {
+    switch (name.toUpperCase()) {
+      case "PASS":
+        return pass;
+      case "PRCI":
+        return prci;
+      case "CSG":
+        return csgRate;
+      default:
+        return BigDecimal.ZERO;
+    }
+  }
+
+  @Override
+  public String[] getContributionTypes() {
+    return contributionTypes.clone();
+  }
+
+  Map<String, ContributionConfig> contributionConfigs() {
+    return Collections.unmodifiableMap(contributionConfigs);
+  }
+
+  /**
+   * Contribution calculator of a composite contribution: the sum of the contributions of its parts.
+   */
+  ContributionCalculator compositeContributionCalculator(ContributionType composite) {
+    final ContributionType[] parts = compositeParts.get(composite);
+    return (income, baseIncome, rate) ->
+        contributionConfigs.get(parts[0].code()).compute(income).add(contributionConfigs.get(parts[1].code()).compute(income));
+  }
+
+  /**
+   * Contribution calculator of a band whose rate does not depend on the income: the rate ratio is computed once.
+   */
+  ContributionCalculator fixedRateContributionCalculator(BigDecimal rate) {
+    final BigDecimal ratio = rate.scaleByPowerOfTen(-2);
+    return (income, baseIncome, ignored) -> baseIncome.multiply(ratio, mc);
+  }
+
+  protected void configure() {
+
+    ContributionConfig contributionConfig;
+
+    // MLD1T2: Maladie 1 T2 pour la tranche des revenus supérieurs à 5 x PASS
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> {
+          if (income.compareTo(passX5) > 0) {
+            return income.subtract(passX5);
+          } else {
+            return BigDecimal.ZERO;
+          }
+        },
+        // rate
+        (income) -> RATE_MALADIE1_T2,
+        fixedRateContributionCalculator(RATE_MALADIE1_T2)
+    );
+    contributionConfigs.put(Maladie1T2.code(), contributionConfig);
+
+    // MLD1T1: Maladie 1 T2 pour la tranche des revenus inférieurs à 5 x PASS
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> income.max(pass40percent).min(passX5),
+        // rate
+        (income) -> {
+          BigDecimal rate;
+          if (income.compareTo(BigDecimal.ZERO) >= 0 && income.compareTo(pass40percent) <= 0) {
+            // contribution.rate = ((6.35 - 1.35) / (1.1 * PASS)) * yearlyIncome + (1.35 - 0) / (0.4 * PASS) * yearlyIncome;
+            // contribution.rate = ((5 / (1.1 * PASS) + (1.35/(0.4 * PASS)) * yearlyIncome;
+            // contribution.rate = ((5/1.1 + 1.35/0.4) / PASS) * yearlyIncome;
+            rate = maladie1T1LowSlope.multiply(income, mc);
+          } else if (income.compareTo(BigDecimal.ZERO) > 0 && income.compareTo(pass110) <= 0) {
+            // contribution.rate = (((6.35 - 1.35) / (1.1 * PASS)) * yearlyIncome) + 1.35;
+            // contribution.rate = 1.35 + (5 / (1.1 * PASS)) * yearlyIncome;
+            rate = maladie1T1MidSlope.multiply(income, mc);
+            rate = rate.add(RATE_MALADIE1_T1_MIN, mc);
+          } else {
+            rate = RATE_MALADIE1_T1_MAX;
+          }
+          return rate;
+        },
+        defaultContributionCalculator
+    );
+    contributionConfigs.put(Maladie1T1.code(), contributionConfig);
+
+    // MAL1: MAL1T1 + MAL1T2
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> income,
+        // rate
+        (income) -> RATE_NOT_SIGNIFICANT, // not really significant
+        compositeContributionCalculator(Maladie1)
+    );
+    contributionConfigs.put(Maladie1.code(), contributionConfig);
+
+    // MAL2: Maladie 2
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> {
+          if (income.compareTo(pass40percent) < 0) {
+            return pass40percent;
+          } else if (income.compareTo(passX5) > 0) {
+            return passX5;
+          } else {
+            return income;
+          }
+        },
+        // rate
+        (income) -> RATE_MALADIE2,
+        fixedRateContributionCalculator(RATE_MALADIE2)
+    );
+    contributionConfigs.put(Maladie2.code(), contributionConfig);
+
+    // RVB T1: Retraite de base T1
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> {
+          if (income.compareTo(pass) >= 0) {
+            return pass;
+          } else if (income.compareTo(pass0115) > 0) {
+            return income;
+          } else {
+            return pass0115;
+          }
+        },
+        // rate
+        (income) -> RATE_RETRAITE_T1,
+        fixedRateContributionCalculator(RATE_RETRAITE_T1)
+    );
+    contributionConfigs.put(RetraiteT1.code(), contributionConfig);
+
+    // RVB T2: Retraite de base T2
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> {
+          if (income.compareTo(pass) >= 0) {
+            return income.subtract(pass);
+          } else {
+            return BigDecimal.ZERO;
+          }
+        },
+        // rate
+        (income) -> RATE_RETRAITE_T2,
+        fixedRateContributionCalculator(RATE_RETRAITE_T2)
+    );
+    contributionConfigs.put(RetraiteT2.code(), contributionConfig);
+
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> income,
+        // rate
+        (income) -> RATE_NOT_SIGNIFICANT, // not really significant
+        compositeContributionCalculator(Retraite)
+    );
+    contributionConfigs.put(Retraite.code(), contributionConfig);
+
+    // RCI T1: Retraite complémentaire T1
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> {
+          if (income.compareTo(prci) < 0) {
+            return income;
+          } else {
+            return prci;
+          }
+        },
+        // rate
+        (income) -> RATE_RETRAITE_COMPLEMENTAIRE_T1,
+        fixedRateContributionCalculator(RATE_RETRAITE_COMPLEMENTAIRE_T1)
+    );
+    contributionConfigs.put(RetraiteComplémentaireT1.code(), contributionConfig);
+
+    // RCI T2: Retraite complémentaire T2
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> {
+          if (income.compareTo(prci) < 0) {
+            return BigDecimal.ZERO;
+          } else if (income.compareTo(passX4) >= 0) {
+            return retraiteComplémentaireT2Max;
+          } else {
+            return income.subtract(prci, mc);
+          }
+        },
+        // rate
+        (income) -> RATE_RETRAITE_COMPLEMENTAIRE_T2,
+        fixedRateContributionCalculator(RATE_RETRAITE_COMPLEMENTAIRE_T2)
+    );
+    contributionConfigs.put(RetraiteComplémentaireT2.code(), contributionConfig);
+
+    // RCI = RCI T1 + RCI T2
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> income,
+        // rate
+        (income) -> RATE_NOT_SIGNIFICANT, // not really significant
+        compositeContributionCalculator(RetraiteComplémentaire)
+    );
+    contributionConfigs.put(RetraiteComplémentaire.code(), contributionConfig);
+
+    // RID: Invalidité-décès
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> {
+          if (income.compareTo(pass0115) < 0) {
+            return pass0115;
+          } else if (income.compareTo(pass) < 0) {
+            return income;
+          } else {
+            return pass;
+          }
+        },
+        // rate
+        (income) -> RATE_INVALIDITE_DECES,
+        fixedRateContributionCalculator(RATE_INVALIDITE_DECES)
+    );
+    contributionConfigs.put(InvalidititéDécès.code(), contributionConfig);
+
+    // AF: Allocation familiales
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> income,
+        // rate
+        (income) -> {
+          if (income.compareTo(pass110) < 0) {
+            return BigDecimal.ZERO;
+          } else if (income.compareTo(pass140) > 0) {
+            return RATE_ALLOCATIONS_FAMILIALES;
+          } else {
+            return allocationsFamilialesSlope.multiply(income.subtract(pass110, mc), mc);
+          }
+        },
+        defaultContributionCalculator
+    );
+    contributionConfigs.put(AllocationsFamiliales.code(), contributionConfig);
+
+    // CSG_CRDS
+    contributionConfig = new ContributionConfig(
+        // base income
+        (income) -> income.multiply(csgRate, mc),
+        // rate
+        (income) -> RATE_CSG_CRDS,
+        fixedRateContributionCalculator(RATE_CSG_CRDS)
+    );
+    contributionConfigs.put(CSG_CRDS.code(), contributionConfig);
+  }
+
+  public enum ContributionType {
+    Maladie1T2("MLD1T2"), // Maladie 1 dans la limite de 5 PASS
+    Maladie1T1("MLD1T1"), // Maladie 1 au delà de de 5 PASS
+    Maladie1("MAL1"), // Maladie 1 = MLD1T1 + MLDT2
+    Maladie2("MAL2"), // Maladie 2
+    RetraiteT1("RVB T1"), // Retraite de base dans la limite de PASS
+    RetraiteT2("RVB T2"), // Retraite de base au delà de PASS
+    Retraite("RVB"), // Retraite de base = RVBT1 + RVBT2
+    RetraiteComplémentaireT1("RCI T1"), // Retraite complémentaire dans la limite de PRCI
+    RetraiteComplémentaireT2("RCI T2"), // Retraite complémentaire entre PRCI et 4 x PASS
+    RetraiteComplémentaire("RCI"), // Retraite complémentaire = RCI T1 + RCI T2
+    InvalidititéDécès("RID"), // Invalidité-décès dans la limite de PASS
+    AllocationsFamiliales("AF"),
+    CSG_CRDS("CSG/CRDS");
+
+    private final String code;
+
+    ContributionType(String code) {
+      this.code = code;
+    }
+
+    public String code() {
+      return code;
+    }
+
+    public static Optional<ContributionType> fromCode(String code) {
+      for (ContributionType type : values()) {
+        if (type.code.equals(code)) {
+          return Optional.of(type);
+        }
+      }
+      return Optional.empty();
+    }
+  }
+}
@@ -0,0 +1,235 @@
+package income.tax.contribution.impl.calculator;
+
+import income.tax.contribution.impl.Calculator;
+import income.tax.contribution.impl.ContributionVector;
+import income.tax.contribution.impl.calculator.BaseCalculator.ContributionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Contributions of every whole-euro monthly income from 0 to a maximum income, precomputed in a memory-mapped file.
+ * <p>
+ * File layout (big endian):
+ * <ul>
+ *   <li>header: magic, version, year, maximum income, contribution type count, then the type codes (UTF-8, length prefixed)</li>
+ *   <li>rows: for each round flag (false, true), for each income from 0 to the maximum income:
+ *   the monthly income, then the base income, rate and contribution of each type</li>
+ * </ul>
+ * A decimal value is stored in a long: the unscaled value in the upper 56 bits and the scale in the lower 8 bits.
+ */
+public class ContributionTable {
+
+  private static Logger logger = LoggerFactory.getLogger(ContributionTable.class);
+
+  private static final int MAGIC = 0x49544354; // "ITCT"
+  private static final int VERSION = 1;
+  private static final int SCALE_BITS = 8;
+  // number of rows checked against the calculator when a table is loaded
+  private static final int VERIFIED_ROWS = 1024;
+
+  private final int year;
+  private final int maxIncome;
+  private final ContributionType[] contributionTypes;
+  private final ByteBuffer rows;
+  private final int rowLength;
+
+  private ContributionTable(int year, int maxIncome, ContributionType[] contributionTypes, ByteBuffer rows) {
+    this.year = year;
+    this.maxIncome = maxIncome;
+    this.contributionTypes = contributionTypes;
+    this.rows = rows;
+    this.rowLength = (1 + 3 * contributionTypes.length) * Long.BYTES;
+  }
+
+  /**
+   * Maps the table of the calculator, generating it if the file does not exist or does not match the calculator.
+   */
+  public static ContributionTable load(Calculator calculator, Path file, int maxIncome) throws IOException {
+    Optional<ContributionTable> table = Files.exists(file) ? map(file) : Optional.empty();
+    if (table.isPresent() && table.get().matches(calculator, maxIncome)) {
+      logger.info("Contribution table of year {} loaded from {}", calculator.getYear(), file);
+      return table.get();
+    }
+    logger.info("Generating the contribution table of year {} in {}", calculator.getYear(), file);
+    generate(calculator, file, maxIncome);
+    table = map(file);
+    if (!table.isPresent() || !table.get().matches(calculator, maxIncome)) {
+      throw new IllegalStateException("Generated contribution table does not match the calculator: " + file);
+    }
+    return table.get();
+  }
+
+  public int getMaxIncome() {
+    return maxIncome;
+  }
+
+  public String[] getContributionTypes() {
+    return Arrays.stream(contributionTypes).map(ContributionType::code).toArray(String[]::new);
+  }
+
+  /**
+   * Returns the contributions of a monthly income, if the income is in the table.
+   */
+  public Optional<ContributionVector> get(long income, boolean round) {
+    if (income < 0 || income > maxIncome) {
+      return Optional.empty();
+    }
+    int offset = ((round ? maxIncome + 1 : 0) + (int) income) * rowLength;
+    BigDecimal monthlyIncome = unpack(rows.getLong(offset));
+    BigDecimal[] baseIncomes = new BigDecimal[contributionTypes.length];
+    BigDecimal[] rates = new BigDecimal[contributionTypes.length];
+    BigDecimal[] contributions = new BigDecimal[contributionTypes.length];
+    for (int i = 0; i < contributionTypes.length; i++) {
+      int position = offset + (1 + 3 * i) * Long.BYTES;
+      baseIncomes[i] = unpack(rows.getLong(position));
+      rates[i] = unpack(rows.getLong(position + Long.BYTES));
+      contributions[i] = unpack(rows.getLong(position + 2 * Long.BYTES));
+    }
+    return Optional.of(ContributionVector.of(contributionTypes, monthlyIncome, baseIncomes, rates, contributions));
+  }
+
+  static void generate(Calculator calculator, Path file, int maxIncome) throws IOException {
+    ContributionType[] contributionTypes = contributionTypes(calculator);
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    // written aside then moved: a process never maps a partial file
+    Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream stream = Files.newOutputStream(tmp);
+           DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(calculator.getYear());
+        out.writeInt(maxIncome);
+        out.writeInt(contributionTypes.length);
+        for (ContributionType type : contributionTypes) {
+          out.writeUTF(type.code());
+        }
+        for (boolean round : new boolean[]{false, true}) {
+          for (int income = 0; income <= maxIncome; income++) {
+            ContributionVector contributions = compute(calculator, income, round);
+            out.writeLong(pack(contributions.income()));
+            for (int i = 0; i < contributions.size(); i++) {
+              out.writeLong(pack(contributions.baseIncome(i)));
+              out.writeLong(pack(contributions.rate(i)));
+              out.writeLong(pack(contributions.contribution(i)));
+            }
+          }
+        }
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private static Optional<ContributionTable> map(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        logger.warn("Contribution table {} is too large", file);
+        return Optional.empty();
+      }
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < 5 * Integer.BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        logger.warn("Contribution table {} has an unexpected format", file);
+        return Optional.empty();
+      }
+      int year = buffer.getInt();
+      int maxIncome = buffer.getInt();
+      ContributionType[] contributionTypes = new ContributionType[buffer.getInt()];
+      for (int i = 0; i < contributionTypes.length; i++) {
+        byte[] code = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(code);
+        Optional<ContributionType> type = ContributionType.fromCode(new String(code, StandardCharsets.UTF_8));
+        if (!type.isPresent()) {
+          logger.warn("Contribution table {} has an unknown contribution type", file);
+          return Optional.empty();
+        }
+        contributionTypes[i] = type.get();
+      }
+      ByteBuffer rows = buffer.slice();
+      long expectedLength = 2L * (maxIncome + 1) * (1 + 3 * contributionTypes.length) * Long.BYTES;
+      if (rows.remaining() != expectedLength) {
+        logger.warn("Contribution table {} is truncated", file);
+        return Optional.empty();
+      }
+      return Optional.of(new ContributionTable(year, maxIncome, contributionTypes, rows));
+    } catch (RuntimeException e) {
+      logger.warn("Contribution table {} cannot be read", file, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Checks the header and a sample of rows against the calculator.
+   */
+  private boolean matches(Calculator calculator, int expectedMaxIncome) {
+    if (year != calculator.getYear() || maxIncome != expectedMaxIncome
+        || !Arrays.equals(contributionTypes, contributionTypes(calculator))) {
+      return false;
+    }
+    int step = Math.max(1, maxIncome / VERIFIED_ROWS);
+    for (boolean round : new boolean[]{false, true}) {
+      for (int income = 0; income <= maxIncome; income += step) {
+        if (!verify(calculator, income, round)) {
+          return false;
+        }
+      }
+      if (!verify(calculator, maxIncome, round)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean verify(Calculator calculator, int income, boolean round) {
+    ContributionVector expected = compute(calculator, income, round);
+    Optional<ContributionVector> actual = get(income, round);
+    if (!actual.isPresent() || !actual.get().equals(expected)) {
+      logger.warn("Contribution table of year {} differs from the calculator for income {} (round: {})",
+          year, income, round);
+      return false;
+    }
+    return true;
+  }
+
+  private static ContributionVector compute(Calculator calculator, int income, boolean round) {
+    return calculator.computeFromMonthlyIncome(Month.JANUARY, BigDecimal.valueOf(income), round, Optional.empty());
+  }
+
+  private static ContributionType[] contributionTypes(Calculator calculator) {
+    ContributionVector contributions = compute(calculator, 0, false);
+    ContributionType[] contributionTypes = new ContributionType[contributions.size()];
+    for (int i = 0; i < contributionTypes.length; i++) {
+      contributionTypes[i] = contributions.type(i);
+    }
+    return contributionTypes;
+  }
+
+  private static long pack(BigDecimal value) {
+    if (value.scale() < Byte.MIN_VALUE || value.scale() > Byte.MAX_VALUE || value.unscaledValue().bitLength() >= Long.SIZE - SCALE_BITS) {
+      throw new ArithmeticException("Value cannot be stored in a contribution table: " + value);
+    }
+    return (value.unscaledValue().longValue() << SCALE_BITS) | (value.scale() & 0xFF);
+  }
+
+  private static BigDecimal unpack(long value) {
+    return BigDecimal.valueOf(value >> SCALE_BITS, (byte) value);
+  }
+}
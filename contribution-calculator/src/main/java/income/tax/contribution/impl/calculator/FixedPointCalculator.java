@@ -0,0 +1,576 @@
+package income.tax.contribution.impl.calculator;
+
+import income.tax.contribution.impl.CalculationConstantProvider;
+import income.tax.contribution.impl.Calculator;
+import income.tax.contribution.impl.ContributionVector;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Month;
+import java.util.Map;
+import java.util.Optional;
+
+import static income.tax.contribution.impl.calculator.BaseCalculator.ContributionType;
+import static income.tax.contribution.impl.calculator.BaseCalculator.contributionToBeComputed;
+
+/**
+ * A calculator evaluating the bands of a {@link BaseCalculator} with scaled {@code long} arithmetic.
+ * <p>
+ * A decimal value is packed into a single long: the unscaled value in the upper 56 bits and the scale in the lower 8 bits.
+ * The rounding points of the reference calculator (its {@link java.math.MathContext} precision and rounding mode) are
+ * applied explicitly, so that results are exactly the same as the reference ones, scale included.
+ * <p>
+ * A value that does not fit (negative income, overflow) makes the computation fall back to the reference calculator.
+ */
+public final class FixedPointCalculator implements Calculator, CalculationConstantProvider {
+
+  private static final int SCALE_BITS = 8;
+  private static final long MAX_UNSCALED = (1L << (Long.SIZE - SCALE_BITS - 1)) - 1;
+  private static final long INFLATED = Long.MIN_VALUE;
+  private static final long[] TEN_POWERS = {
+      1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+      10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+      1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+  };
+  private static final long ZERO = pack(0, 0);
+  private static final long MONTH_COUNT = pack(12, 0);
+  private static final int CENTS_SCALE = 2;
+
+  private final BaseCalculator reference;
+  private final int precision;
+  private final RoundingMode roundingMode;
+  private final String[] contributionTypes;
+
+  private final long pass;
+  private final long prci;
+  private final long csgRate;
+  private final long passX4;
+  private final long passX5;
+  private final long pass40percent;
+  private final long pass110;
+  private final long pass0115;
+  private final long pass140;
+  private final long maladie1T1LowSlope;
+  private final long maladie1T1MidSlope;
+  private final long allocationsFamilialesSlope;
+  private final long retraiteComplémentaireT2Max;
+  private final long rateMaladie1T1Min;
+  private final long rateMaladie1T1Max;
+  private final long rateAllocationsFamiliales;
+
+  // rate ratios (rate / 100) of the bands with a fixed rate, by ContributionType ordinal
+  private final long[] fixedRateRatios = new long[ContributionType.values().length];
+
+  /**
+   * Returns a fixed-point calculator of the same year as the given calculator.
+   */
+  public static FixedPointCalculator of(BaseCalculator reference) {
+    return new FixedPointCalculator(reference);
+  }
+
+  private FixedPointCalculator(BaseCalculator reference) {
+    this.reference = reference;
+    this.precision = reference.mc.getPrecision();
+    this.roundingMode = reference.roundingMode;
+    this.contributionTypes = reference.getContributionTypes();
+
+    pass = pack(reference.pass);
+    prci = pack(reference.prci);
+    csgRate = pack(reference.csgRate);
+    passX4 = pack(reference.passX4);
+    passX5 = pack(reference.passX5);
+    pass40percent = pack(reference.pass40percent);
+    pass110 = pack(reference.pass110);
+    pass0115 = pack(reference.pass0115);
+    pass140 = pack(reference.pass140);
+    maladie1T1LowSlope = pack(reference.maladie1T1LowSlope);
+    maladie1T1MidSlope = pack(reference.maladie1T1MidSlope);
+    allocationsFamilialesSlope = pack(reference.allocationsFamilialesSlope);
+    retraiteComplémentaireT2Max = pack(reference.retraiteComplémentaireT2Max);
+    rateMaladie1T1Min = pack(BaseCalculator.RATE_MALADIE1_T1_MIN);
+    rateMaladie1T1Max = pack(BaseCalculator.RATE_MALADIE1_T1_MAX);
+    rateAllocationsFamiliales = pack(BaseCalculator.RATE_ALLOCATIONS_FAMILIALES);
+
+    fixedRateRatios[ContributionType.Maladie1T2.ordinal()] = ratio(BaseCalculator.RATE_MALADIE1_T2);
+    fixedRateRatios[ContributionType.Maladie2.ordinal()] = ratio(BaseCalculator.RATE_MALADIE2);
+    fixedRateRatios[ContributionType.RetraiteT1.ordinal()] = ratio(BaseCalculator.RATE_RETRAITE_T1);
+    fixedRateRatios[ContributionType.RetraiteT2.ordinal()] = ratio(BaseCalculator.RATE_RETRAITE_T2);
+    fixedRateRatios[ContributionType.RetraiteComplémentaireT1.ordinal()] = ratio(BaseCalculator.RATE_RETRAITE_COMPLEMENTAIRE_T1);
+    fixedRateRatios[ContributionType.RetraiteComplémentaireT2.ordinal()] = ratio(BaseCalculator.RATE_RETRAITE_COMPLEMENTAIRE_T2);
+    fixedRateRatios[ContributionType.InvalidititéDécès.ordinal()] = ratio(BaseCalculator.RATE_INVALIDITE_DECES);
+    fixedRateRatios[ContributionType.CSG_CRDS.ordinal()] = ratio(BaseCalculator.RATE_CSG_CRDS);
+  }
+
+  @Override
+  public int getYear() {
+    return reference.getYear();
+  }
+
+  @Override
+  public BigDecimal round(BigDecimal value) {
+    return reference.round(value);
+  }
+
+  @Override
+  public BigDecimal getCalculationConstant(String name) {
+    return reference.getCalculationConstant(name);
+  }
+
+  @Override
+  public String[] getContributionTypes() {
+    return contributionTypes.clone();
+  }
+
+  @Override
+  public ContributionVector computeFromYearlyIncome(BigDecimal income, boolean round) {
+    try {
+      long yearlyIncome = pack(income);
+      BigDecimal[] baseIncomes = new BigDecimal[contributionToBeComputed.length];
+      BigDecimal[] rates = new BigDecimal[contributionToBeComputed.length];
+      BigDecimal[] contributions = new BigDecimal[contributionToBeComputed.length];
+      for (int i = 0; i < contributionToBeComputed.length; i++) {
+        ContributionType type = contributionToBeComputed[i];
+        long baseIncome = baseIncome(type, yearlyIncome);
+        long contribution = contribution(type, yearlyIncome, baseIncome, round);
+        baseIncomes[i] = toBigDecimal(baseIncome);
+        rates[i] = toBigDecimal(rate(contribution, baseIncome));
+        contributions[i] = toBigDecimal(contribution);
+      }
+      return ContributionVector.of(contributionToBeComputed, income, baseIncomes, rates, contributions);
+    } catch (ArithmeticException e) {
+      return reference.computeFromYearlyIncome(income, round);
+    }
+  }
+
+  @Override
+  public ContributionVector
+  computeFromMonthlyIncome(
+      Month month, BigDecimal income, boolean round, Optional<Map<String, Object>> additionalArgs) {
+    try {
+      long yearlyIncome = multiplyExact(pack(income), MONTH_COUNT);
+      BigDecimal monthlyIncome = toBigDecimal(divide(yearlyIncome, MONTH_COUNT));
+      BigDecimal[] baseIncomes = new BigDecimal[contributionToBeComputed.length];
+      BigDecimal[] rates = new BigDecimal[contributionToBeComputed.length];
+      BigDecimal[] contributions = new BigDecimal[contributionToBeComputed.length];
+      for (int i = 0; i < contributionToBeComputed.length; i++) {
+        ContributionType type = contributionToBeComputed[i];
+        long baseIncome = baseIncome(type, yearlyIncome);
+        long contribution = contribution(type, yearlyIncome, baseIncome, round);
+        baseIncomes[i] = toBigDecimal(divide(baseIncome, MONTH_COUNT));
+        rates[i] = toBigDecimal(rate(contribution, baseIncome));
+        contributions[i] = toBigDecimal(divide(contribution, MONTH_COUNT));
+      }
+      return ContributionVector.of(contributionToBeComputed, monthlyIncome, baseIncomes, rates, contributions);
+    } catch (ArithmeticException e) {
+      return reference.computeFromMonthlyIncome(month, income, round, additionalArgs);
+    }
+  }
+
+  /**
+   * Computes the contributions of a yearly income, without any allocation.
+   *
+   * @param incomeCents        the yearly income, in cents
+   * @param round              whether the contributions are rounded to the unit before being converted to cents
+   * @param contributionsCents receives the contributions in cents, in the order of {@link #getContributionTypes()}
+   */
+  public void computeFromYearlyIncome(long incomeCents, boolean round, long[] contributionsCents) {
+    computeCents(incomeCents, false, round, contributionsCents);
+  }
+
+  /**
+   * Computes the contributions of a monthly income, without any allocation.
+   *
+   * @param incomeCents        the monthly income, in cents
+   * @param round              whether the yearly contributions are rounded to the unit before being spread over months
+   * @param contributionsCents receives the monthly contributions in cents, in the order of {@link #getContributionTypes()}
+   */
+  public void computeFromMonthlyIncome(long incomeCents, boolean round, long[] contributionsCents) {
+    computeCents(incomeCents, true, round, contributionsCents);
+  }
+
+  private void computeCents(long incomeCents, boolean monthly, boolean round, long[] contributionsCents) {
+    if (contributionsCents.length < contributionToBeComputed.length) {
+      throw new IllegalArgumentException(
+          "contributionsCents must hold at least " + contributionToBeComputed.length + " contributions");
+    }
+    try {
+      long income = pack(incomeCents, CENTS_SCALE);
+      long yearlyIncome = monthly ? multiplyExact(income, MONTH_COUNT) : income;
+      for (int i = 0; i < contributionToBeComputed.length; i++) {
+        ContributionType type = contributionToBeComputed[i];
+        long contribution = contribution(type, yearlyIncome, baseIncome(type, yearlyIncome), round);
+        if (monthly) {
+          contribution = divide(contribution, MONTH_COUNT);
+        }
+        contributionsCents[i] = unscaled(setScale(contribution, CENTS_SCALE, roundingMode));
+      }
+    } catch (ArithmeticException e) {
+      BigDecimal income = BigDecimal.valueOf(incomeCents, CENTS_SCALE);
+      ContributionVector contributions = monthly
+          ? reference.computeFromMonthlyIncome(Month.JANUARY, income, round, Optional.empty())
+          : reference.computeFromYearlyIncome(income, round);
+      for (int i = 0; i < contributions.size(); i++) {
+        contributionsCents[i] = contributions.contribution(i)
+            .setScale(CENTS_SCALE, roundingMode).unscaledValue().longValueExact();
+      }
+    }
+  }
+
+  // -- bands (see BaseCalculator.configure())
+
+  private long baseIncome(ContributionType type, long income) {
+    switch (type) {
+      case Maladie1T2:
+        return compare(income, passX5) > 0 ? subtract(income, passX5) : ZERO;
+      case Maladie1T1:
+        long base = compare(income, pass40percent) >= 0 ? income : pass40percent;
+        return compare(base, passX5) <= 0 ? base : passX5;
+      case Maladie2:
+        if (compare(income, pass40percent) < 0) {
+          return pass40percent;
+        } else if (compare(income, passX5) > 0) {
+          return passX5;
+        } else {
+          return income;
+        }
+      case RetraiteT1:
+        if (compare(income, pass) >= 0) {
+          return pass;
+        } else if (compare(income, pass0115) > 0) {
+          return income;
+        } else {
+          return pass0115;
+        }
+      case RetraiteT2:
+        return compare(income, pass) >= 0 ? subtract(income, pass) : ZERO;
+      case RetraiteComplémentaireT1:
+        return compare(income, prci) < 0 ? income : prci;
+      case RetraiteComplémentaireT2:
+        if (compare(income, prci) < 0) {
+          return ZERO;
+        } else if (compare(income, passX4) >= 0) {
+          return retraiteComplémentaireT2Max;
+        } else {
+          return round(subtract(income, prci));
+        }
+      case InvalidititéDécès:
+        if (compare(income, pass0115) < 0) {
+          return pass0115;
+        } else if (compare(income, pass) < 0) {
+          return income;
+        } else {
+          return pass;
+        }
+      case AllocationsFamiliales:
+        return income;
+      case CSG_CRDS:
+        return multiply(income, csgRate);
+      default:
+        throw new IllegalArgumentException("Unsupported contribution type: " + type);
+    }
+  }
+
+  private long contribution(ContributionType type, long income, long baseIncome, boolean round) {
+    long ratio;
+    switch (type) {
+      case Maladie1T1:
+        ratio = scaleByPowerOfTen(maladie1T1Rate(income), -2);
+        break;
+      case AllocationsFamiliales:
+        ratio = scaleByPowerOfTen(allocationsFamilialesRate(income), -2);
+        break;
+      default:
+        ratio = fixedRateRatios[type.ordinal()];
+    }
+    long contribution = multiply(baseIncome, ratio);
+    return round ? setScale(contribution, 0, roundingMode) : contribution;
+  }
+
+  private long maladie1T1Rate(long income) {
+    if (unscaled(income) >= 0 && compare(income, pass40percent) <= 0) {
+      return multiply(maladie1T1LowSlope, income);
+    } else if (unscaled(income) > 0 && compare(income, pass110) <= 0) {
+      return add(multiply(maladie1T1MidSlope, income), rateMaladie1T1Min);
+    } else {
+      return rateMaladie1T1Max;
+    }
+  }
+
+  private long allocationsFamilialesRate(long income) {
+    if (compare(income, pass110) < 0) {
+      return ZERO;
+    } else if (compare(income, pass140) > 0) {
+      return rateAllocationsFamiliales;
+    } else {
+      return multiply(allocationsFamilialesSlope, round(subtract(income, pass110)));
+    }
+  }
+
+  /**
+   * Informative rate: contribution / base income, in percent, rounded up to 2 decimals.
+   */
+  private long rate(long contribution, long baseIncome) {
+    if (unscaled(baseIncome) == 0) {
+      return ZERO;
+    }
+    return setScale(scaleByPowerOfTen(divide(contribution, baseIncome), 2), 2, RoundingMode.CEILING);
+  }
+
+  // -- packed decimal arithmetic, mirroring java.math.BigDecimal on non-negative values
+
+  private static long pack(long unscaled, int scale) {
+    if (unscaled < 0 || unscaled > MAX_UNSCALED || scale < Byte.MIN_VALUE || scale > Byte.MAX_VALUE) {
+      throw new ArithmeticException("Out of the fixed-point range: " + unscaled + "E" + (-scale));
+    }
+    return (unscaled << SCALE_BITS) | (scale & 0xFF);
+  }
+
+  private static long pack(BigDecimal value) {
+    if (value.signum() < 0 || value.precision() > 18) {
+      throw new ArithmeticException("Out of the fixed-point range: " + value);
+    }
+    return pack(value.unscaledValue().longValue(), value.scale());
+  }
+
+  private static long unscaled(long value) {
+    return value >> SCALE_BITS;
+  }
+
+  private static int scale(long value) {
+    return (byte) value;
+  }
+
+  private static BigDecimal toBigDecimal(long value) {
+    return BigDecimal.valueOf(unscaled(value), scale(value));
+  }
+
+  private static long ratio(BigDecimal rate) {
+    return pack(rate.scaleByPowerOfTen(-2));
+  }
+
+  private static long scaleByPowerOfTen(long value, int n) {
+    return pack(unscaled(value), scale(value) - n);
+  }
+
+  private static int compare(long x, long y) {
+    int xScale = scale(x);
+    int yScale = scale(y);
+    if (xScale == yScale) {
+      return Long.compare(unscaled(x), unscaled(y));
+    } else if (xScale < yScale) {
+      return Long.compare(multiplyPowerOfTen(unscaled(x), yScale - xScale), unscaled(y));
+    } else {
+      return Long.compare(unscaled(x), multiplyPowerOfTen(unscaled(y), xScale - yScale));
+    }
+  }
+
+  /**
+   * Exact subtraction, see {@link BigDecimal#subtract(BigDecimal)}.
+   */
+  private static long subtract(long x, long y) {
+    int scale = Math.max(scale(x), scale(y));
+    return pack(
+        Math.subtractExact(
+            multiplyPowerOfTen(unscaled(x), scale - scale(x)),
+            multiplyPowerOfTen(unscaled(y), scale - scale(y))),
+        scale);
+  }
+
+  /**
+   * Rounded addition, see {@link BigDecimal#add(BigDecimal, java.math.MathContext)}.
+   */
+  private long add(long x, long y) {
+    int preferredScale = Math.max(scale(x), scale(y));
+    boolean xIsZero = unscaled(x) == 0;
+    boolean yIsZero = unscaled(y) == 0;
+    if (xIsZero && yIsZero) {
+      return pack(0, preferredScale);
+    } else if (xIsZero || yIsZero) {
+      // the other value, rounded and scaled if necessary
+      long result = round(xIsZero ? y : x);
+      int scale = scale(result);
+      if (scale > preferredScale) {
+        return stripZeros(unscaled(result), scale, preferredScale);
+      } else if (scale < preferredScale) {
+        int precisionDiff = precision - digitLength(unscaled(result));
+        int scaleDiff = preferredScale - scale;
+        return setScale(result, precisionDiff >= scaleDiff ? preferredScale : scale + precisionDiff, roundingMode);
+      }
+      return result;
+    }
+    return round(
+        Math.addExact(
+            multiplyPowerOfTen(unscaled(x), preferredScale - scale(x)),
+            multiplyPowerOfTen(unscaled(y), preferredScale - scale(y))),
+        preferredScale);
+  }
+
+  /**
+   * Exact multiplication, see {@link BigDecimal#multiply(BigDecimal)}.
+   */
+  private static long multiplyExact(long x, long y) {
+    return pack(Math.multiplyExact(unscaled(x), unscaled(y)), scale(x) + scale(y));
+  }
+
+  /**
+   * Rounded multiplication, see {@link BigDecimal#multiply(BigDecimal, java.math.MathContext)}.
+   */
+  private long multiply(long x, long y) {
+    return round(Math.multiplyExact(unscaled(x), unscaled(y)), scale(x) + scale(y));
+  }
+
+  /**
+   * Rounded division, see {@link BigDecimal#divide(BigDecimal, java.math.MathContext)}.
+   */
+  private long divide(long x, long y) {
+    long dividend = unscaled(x);
+    long divisor = unscaled(y);
+    int preferredScale = scale(x) - scale(y);
+    if (divisor == 0) {
+      throw new ArithmeticException("Division by zero");
+    }
+    if (dividend == 0) {
+      return pack(0, preferredScale);
+    }
+    int dividendDigits = digitLength(dividend);
+    int divisorDigits = digitLength(divisor);
+    if (compareNormalized(dividend, dividendDigits, divisor, divisorDigits) > 0) {
+      divisorDigits -= 1;
+    }
+    // the quotient gets `precision` digits
+    int raise = precision + divisorDigits - dividendDigits;
+    int scale = preferredScale + raise;
+    if (raise >= 0) {
+      dividend = multiplyPowerOfTen(dividend, raise);
+    } else {
+      divisor = multiplyPowerOfTen(divisor, -raise);
+    }
+    long quotient = dividend / divisor;
+    long remainder = dividend % divisor;
+    if (remainder != 0) {
+      quotient = roundQuotient(quotient, remainder, divisor, roundingMode);
+      return round(quotient, scale);
+    }
+    return round(stripZeros(quotient, scale, preferredScale));
+  }
+
+  /**
+   * See {@link BigDecimal#setScale(int, RoundingMode)}.
+   */
+  private static long setScale(long value, int newScale, RoundingMode roundingMode) {
+    int scale = scale(value);
+    long unscaled = unscaled(value);
+    if (newScale >= scale) {
+      return pack(multiplyPowerOfTen(unscaled, newScale - scale), newScale);
+    }
+    int drop = scale - newScale;
+    if (drop >= TEN_POWERS.length) {
+      // the divisor exceeds any unscaled value: the quotient is 0, the remainder less than a half
+      boolean increment = unscaled != 0 && (roundingMode == RoundingMode.UP || roundingMode == RoundingMode.CEILING);
+      return pack(increment ? 1 : 0, newScale);
+    }
+    return pack(divideAndRound(unscaled, TEN_POWERS[drop], roundingMode), newScale);
+  }
+
+  /**
+   * Rounds to the precision of the reference calculator.
+   */
+  private long round(long value) {
+    return round(unscaled(value), scale(value));
+  }
+
+  private long round(long unscaled, int scale) {
+    int drop = digitLength(unscaled) - precision;
+    while (drop > 0) {
+      scale -= drop;
+      unscaled = divideAndRound(unscaled, TEN_POWERS[drop], roundingMode);
+      drop = digitLength(unscaled) - precision;
+    }
+    return pack(unscaled, scale);
+  }
+
+  private static long stripZeros(long unscaled, int scale, int preferredScale) {
+    while (unscaled >= 10L && scale > preferredScale && unscaled % 10 == 0) {
+      unscaled /= 10;
+      scale--;
+    }
+    return pack(unscaled, scale);
+  }
+
+  private static long divideAndRound(long dividend, long divisor, RoundingMode roundingMode) {
+    long quotient = dividend / divisor;
+    long remainder = dividend % divisor;
+    return remainder == 0 ? quotient : roundQuotient(quotient, remainder, divisor, roundingMode);
+  }
+
+  private static long roundQuotient(long quotient, long remainder, long divisor, RoundingMode roundingMode) {
+    // non-negative operands: remainder > 0
+    int half = Long.compare(remainder, divisor - remainder);
+    boolean increment;
+    switch (roundingMode) {
+      case UP:
+      case CEILING:
+        increment = true;
+        break;
+      case DOWN:
+      case FLOOR:
+        increment = false;
+        break;
+      case HALF_UP:
+        increment = half >= 0;
+        break;
+      case HALF_DOWN:
+        increment = half > 0;
+        break;
+      case HALF_EVEN:
+        increment = half > 0 || (half == 0 && (quotient & 1L) != 0);
+        break;
+      default:
+        throw new ArithmeticException("Rounding necessary");
+    }
+    return increment ? quotient + 1 : quotient;
+  }
+
+  private static int compareNormalized(long x, int xDigits, long y, int yDigits) {
+    long scaledX = x;
+    long scaledY = y;
+    if (xDigits < yDigits) {
+      scaledX = multiplyPowerOfTenOrInflated(x, yDigits - xDigits);
+    } else if (xDigits > yDigits) {
+      scaledY = multiplyPowerOfTenOrInflated(y, xDigits - yDigits);
+    }
+    if (scaledX == INFLATED) {
+      return 1;
+    }
+    return scaledY == INFLATED ? -1 : Long.compare(scaledX, scaledY);
+  }
+
+  private static long multiplyPowerOfTen(long value, int n) {
+    if (n >= TEN_POWERS.length) {
+      if (value == 0) {
+        return 0;
+      }
+      throw new ArithmeticException("Overflow");
+    }
+    return Math.multiplyExact(value, TEN_POWERS[n]);
+  }
+
+  private static long multiplyPowerOfTenOrInflated(long value, int n) {
+    try {
+      return multiplyPowerOfTen(value, n);
+    } catch (ArithmeticException e) {
+      return INFLATED;
+    }
+  }
+
+  private static int digitLength(long value) {
+    if (value == 0) {
+      return 1;
+    }
+    int digits = 1;
+    while (digits < TEN_POWERS.length && value >= TEN_POWERS[digits]) {
+      digits++;
+    }
+    return digits;
+  }
+}
@@ -0,0 +1,72 @@
+package income.tax.contribution.impl.calculator;
+
+import income.tax.contribution.impl.CalculationConstantProvider;
+import income.tax.contribution.impl.Calculator;
+import income.tax.contribution.impl.ContributionVector;
+
+import java.math.BigDecimal;
+import java.time.Month;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A calculator serving whole-euro monthly incomes from a {@link ContributionTable}.
+ * Other incomes (decimals, above the table range, additional arguments) are computed by the calculator of the year.
+ */
+public class TabulatedCalculator implements Calculator, CalculationConstantProvider {
+
+  private final Calculator calculator;
+  private final ContributionTable table;
+
+  public TabulatedCalculator(Calculator calculator, ContributionTable table) {
+    this.calculator = calculator;
+    this.table = table;
+  }
+
+  @Override
+  public int getYear() {
+    return calculator.getYear();
+  }
+
+  @Override
+  public BigDecimal round(BigDecimal value) {
+    return calculator.round(value);
+  }
+
+  @Override
+  public BigDecimal getCalculationConstant(String name) {
+    if (calculator instanceof CalculationConstantProvider) {
+      return ((CalculationConstantProvider) calculator).getCalculationConstant(name);
+    }
+    return BigDecimal.ZERO;
+  }
+
+  @Override
+  public String[] getContributionTypes() {
+    return table.getContributionTypes();
+  }
+
+  @Override
+  public ContributionVector computeFromYearlyIncome(BigDecimal income, boolean round) {
+    return calculator.computeFromYearlyIncome(income, round);
+  }
+
+  @Override
+  public ContributionVector
+  computeFromMonthlyIncome(
+      Month month, BigDecimal income, boolean round, Optional<Map<String, Object>> additionalArgs) {
+    // the scale of the income is part of the results: only scale 0 incomes are in the table
+    if (income.scale() == 0 && !additionalArgs.isPresent() && income.unscaledValue().bitLength() < Long.SIZE) {
+      Optional<ContributionVector> contributions = table.get(income.longValue(), round);
+      if (contributions.isPresent()) {
+        return contributions.get();
+      }
+    }
+    return calculator.computeFromMonthlyIncome(month, income, round, additionalArgs);
+  }
+
+  @Override
+  public String toString() {
+    return "TabulatedCalculator(" + calculator + ", max income: " + table.getMaxIncome() + ")";
+  }
+}
@@ -0,0 +1,58 @@
+package income.tax.contribution.impl;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import income.tax.contribution.impl.calculator.Calculator2018;
+import income.tax.contribution.impl.calculator.FixedPointCalculator;
+import income.tax.contribution.impl.calculator.TabulatedCalculator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalculatorsTest {
+
+  @Test
+  public void loadsCalculatorsMostRecentFirst() {
+    Config config = ConfigFactory.defaultReference();
+
+    Map<Integer, Calculator> calculators = Calculators.load(config);
+
+    assertThat(calculators.keySet()).containsExactly(2019, 2018);
+    assertThat(calculators.values()).noneMatch(calculator -> calculator instanceof TabulatedCalculator);
+    assertThat(calculators.values()).noneMatch(calculator -> calculator instanceof FixedPointCalculator);
+  }
+
+  @Test
+  public void selectsFixedPointCalculatorsByYear() {
+    Map<Integer, Calculator> calculators =
+        Calculators.fixedPoint(Calculators.loadCalculators(), Collections.singletonList(2019));
+
+    assertThat(calculators.keySet()).containsExactly(2019, 2018);
+    assertThat(calculators.get(2019)).isInstanceOf(FixedPointCalculator.class);
+    assertThat(calculators.get(2019).getYear()).isEqualTo(2019);
+    assertThat(calculators.get(2018)).isInstanceOf(Calculator2018.class);
+  }
+
+  @Test
+  public void tabulatesCalculators(@TempDir Path directory) {
+    Map<Integer, Calculator> calculators =
+        Calculators.tabulate(Calculators.loadCalculators(), directory, 100, Collections.emptyList());
+
+    assertThat(calculators.keySet()).containsExactly(2019, 2018);
+    assertThat(calculators.values()).allMatch(calculator -> calculator instanceof TabulatedCalculator);
+  }
+
+  @Test
+  public void tabulatesCalculatorsOfGivenYears(@TempDir Path directory) {
+    Map<Integer, Calculator> calculators =
+        Calculators.tabulate(Calculators.loadCalculators(), directory, 100, Collections.singletonList(2019));
+
+    assertThat(calculators.get(2019)).isInstanceOf(TabulatedCalculator.class);
+    assertThat(calculators.get(2018)).isNotInstanceOf(TabulatedCalculator.class);
+  }
+}
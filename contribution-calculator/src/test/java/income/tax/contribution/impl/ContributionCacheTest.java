@@ -0,0 +1,102 @@
+package income.tax.contribution.impl;
+
+import com.google.common.base.Ticker;
+import income.tax.contribution.impl.calculator.BaseCalculator.ContributionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContributionCacheTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private final Ticker ticker = new Ticker() {
+    @Override
+    public long read() {
+      return clock.get();
+    }
+  };
+  private final AtomicInteger computations = new AtomicInteger();
+
+  @Test
+  public void cacheHit() {
+    ContributionCache cache = new ContributionCache(10, Duration.ofMinutes(1), ticker);
+
+    ContributionVector first = cache.get(key(Month.MAY, "1500"), this::compute);
+    ContributionVector second = cache.get(key(Month.MAY, "1500"), this::compute);
+
+    assertThat(second).isSameAs(first);
+    assertThat(computations).hasValue(1);
+    assertThat(cache.stats()).isEqualTo(new ContributionCache.Stats(1, 1, 0));
+  }
+
+  @Test
+  public void leastRecentlyUsedEviction() {
+    ContributionCache cache = new ContributionCache(2, Duration.ofMinutes(1), ticker);
+
+    cache.get(key(Month.JANUARY, "1500"), this::compute);
+    cache.get(key(Month.FEBRUARY, "1500"), this::compute);
+    cache.get(key(Month.JANUARY, "1500"), this::compute);
+    cache.get(key(Month.MARCH, "1500"), this::compute);
+    // FEBRUARY was the least recently used
+    cache.get(key(Month.JANUARY, "1500"), this::compute);
+    cache.get(key(Month.FEBRUARY, "1500"), this::compute);
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(computations).hasValue(4);
+    assertThat(cache.stats()).isEqualTo(new ContributionCache.Stats(2, 4, 2));
+  }
+
+  @Test
+  public void expiration() {
+    ContributionCache cache = new ContributionCache(10, Duration.ofSeconds(10), ticker);
+
+    cache.get(key(Month.MAY, "1500"), this::compute);
+    clock.addAndGet(Duration.ofSeconds(9).toNanos());
+    cache.get(key(Month.MAY, "1500"), this::compute);
+    clock.addAndGet(Duration.ofSeconds(1).toNanos());
+    cache.get(key(Month.MAY, "1500"), this::compute);
+
+    assertThat(computations).hasValue(2);
+    assertThat(cache.stats()).isEqualTo(new ContributionCache.Stats(1, 2, 1));
+  }
+
+  @Test
+  public void concurrentMissesComputeOnce() throws Exception {
+    ContributionCache cache = new ContributionCache(10, Duration.ofMinutes(1), ticker);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<ContributionVector>> results = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        results.add(executor.submit(() -> cache.get(key(Month.MAY, "1500"), this::compute)));
+      }
+      for (Future<ContributionVector> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(computations).hasValue(1);
+  }
+
+  private static ContributionCache.Key key(Month month, String income) {
+    return new ContributionCache.Key(2019, month, new BigDecimal(income), false);
+  }
+
+  private ContributionVector compute() {
+    computations.incrementAndGet();
+    return ContributionVector.of(new ContributionType[0], BigDecimal.ZERO,
+        new BigDecimal[0], new BigDecimal[0], new BigDecimal[0]);
+  }
+}
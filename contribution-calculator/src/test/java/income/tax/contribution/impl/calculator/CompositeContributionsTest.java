@@ -0,0 +1,51 @@
+package income.tax.contribution.impl.calculator;
+
+import income.tax.contribution.impl.ContributionInternal;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static income.tax.contribution.impl.calculator.BaseCalculator.ContributionType.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompositeContributionsTest {
+
+  private Calculator2019 calculator = new Calculator2019();
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 11_520, 23_844, 40_524, 240_000})
+  public void compositesAreTheSumOfTheirParts(int yearlyIncome) {
+    BigDecimal income = BigDecimal.valueOf(yearlyIncome);
+
+    Map<String, ContributionInternal> contributions = calculator.computeFromYearlyIncomeWithComposites(income, false);
+
+    assertThat(contributions).containsAllEntriesOf(calculator.computeFromYearlyIncome(income, false));
+    assertSum(contributions, Maladie1, Maladie1T1, Maladie1T2);
+    assertSum(contributions, Retraite, RetraiteT1, RetraiteT2);
+    assertSum(contributions, RetraiteComplémentaire, RetraiteComplémentaireT1, RetraiteComplémentaireT2);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 11_520, 23_844, 40_524, 240_000})
+  public void sameAsCompositeConfigs(int yearlyIncome) {
+    BigDecimal income = BigDecimal.valueOf(yearlyIncome);
+
+    Map<String, ContributionInternal> contributions = calculator.computeFromYearlyIncomeWithComposites(income, true);
+
+    for (BaseCalculator.ContributionType composite : BaseCalculator.compositeContributions) {
+      ContributionInternal contribution = contributions.get(composite.code());
+      assertThat(contribution.baseIncome).as(composite.code()).isEqualTo(income);
+      assertThat(contribution.contribution).as(composite.code())
+          .isEqualTo(calculator.round(calculator.contributionConfigs().get(composite.code()).compute(income)));
+    }
+  }
+
+  private void assertSum(Map<String, ContributionInternal> contributions,
+                         BaseCalculator.ContributionType composite,
+                         BaseCalculator.ContributionType t1, BaseCalculator.ContributionType t2) {
+    assertThat(contributions.get(composite.code()).contribution).as(composite.code())
+        .isEqualTo(contributions.get(t1.code()).contribution.add(contributions.get(t2.code()).contribution));
+  }
+}
@@ -0,0 +1,195 @@
+package income.tax.contribution.impl.calculator;
+
+import income.tax.contribution.impl.ContributionInternal;
+import income.tax.contribution.impl.calculator.BaseCalculator.ContributionType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class FixedPointCalculatorTest {
+
+  static Stream<Arguments> calculators() {
+    return Stream.of(
+        Arguments.of(FixedPointCalculator.of(new Calculator2018()), new Calculator2018()),
+        Arguments.of(FixedPointCalculator.of(new Calculator2019()), new Calculator2019()));
+  }
+
+  @ParameterizedTest
+  @MethodSource("calculators")
+  public void sameResultsAsBigDecimalCalculator(FixedPointCalculator calculator, BaseCalculator reference) {
+
+    for (BigDecimal income : incomes(reference)) {
+      for (boolean round : new boolean[]{false, true}) {
+        assertThat(calculator.computeFromYearlyIncome(income, round))
+            .as("yearly %s, round=%s", income, round)
+            .isEqualTo(reference.computeFromYearlyIncome(income, round));
+        assertThat(calculator.computeFromMonthlyIncome(Month.MAY, income, round, Optional.empty()))
+            .as("monthly %s, round=%s", income, round)
+            .isEqualTo(reference.computeFromMonthlyIncome(Month.MAY, income, round, Optional.empty()));
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("calculators")
+  public void centsEntryPoints(FixedPointCalculator calculator, BaseCalculator reference) {
+
+    String[] contributionTypes = reference.getContributionTypes();
+    long[] contributions = new long[contributionTypes.length];
+    for (BigDecimal income : incomes(reference)) {
+      long incomeCents = income.setScale(2, RoundingMode.DOWN).unscaledValue().longValue();
+      BigDecimal incomeInEuros = BigDecimal.valueOf(incomeCents, 2);
+      for (boolean round : new boolean[]{false, true}) {
+        calculator.computeFromYearlyIncome(incomeCents, round, contributions);
+        assertCents(contributions, reference.computeFromYearlyIncome(incomeInEuros, round), contributionTypes,
+            reference.roundingMode, "yearly " + incomeInEuros);
+
+        calculator.computeFromMonthlyIncome(incomeCents, round, contributions);
+        assertCents(contributions,
+            reference.computeFromMonthlyIncome(Month.MAY, incomeInEuros, round, Optional.empty()), contributionTypes,
+            reference.roundingMode, "monthly " + incomeInEuros);
+      }
+    }
+  }
+
+  /**
+   * The cases of {@link Calculator2018Test} and {@link Calculator2019Test}: contributions shown with 2 decimals rounded
+   * up, as those tests do, and rounded to the euro.
+   */
+  @ParameterizedTest
+  @CsvSource({
+      "2018, 240000, Maladie1T2, 2687.10, 2687",
+      "2018, 240000, Maladie1T1, 12614.91, 12615",
+      "2018, 240000, Maladie2, 1688.61, 1689",
+      "2018, 240000, RetraiteT1, 7052.43, 7052",
+      "2018, 240000, RetraiteT2, 1201.61, 1202",
+      "2018, 240000, RetraiteComplémentaireT1, 2649.22, 2649",
+      "2018, 240000, RetraiteComplémentaireT2, 9686.56, 9687",
+      "2018, 240000, InvalidititéDécès, 516.52, 517",
+      "2018, 240000, AllocationsFamiliales, 7440.00, 7440",
+      "2018, 240000, CSG_CRDS, 32592.00, 32592",
+      "2018, 23844, Maladie1T2, 0.00,",
+      "2018, 23844, Maladie1T1, 972.32, 972",
+      "2018, 23844, Maladie2, 202.68, 203",
+      "2018, 23844, RetraiteT1, 4232.31, 4232",
+      "2018, 23844, RetraiteT2, 0.00, 0",
+      "2018, 23844, RetraiteComplémentaireT1, 1669.08, 1669",
+      "2018, 23844, RetraiteComplémentaireT2, 0.00, 0",
+      "2018, 23844, InvalidititéDécès, 309.98, 310",
+      "2018, 23844, AllocationsFamiliales, 0.00, 0",
+      "2018, 23844, CSG_CRDS, 3238.02, 3238",
+      "2018, 11520, Maladie1T2, 0.00, 0",
+      "2018, 11520, Maladie1T1, 364.98, 365",
+      "2018, 11520, Maladie2, 135.09, 135",
+      "2018, 11520, RetraiteT1, 2044.80, 2045",
+      "2018, 11520, RetraiteT2, 0.00, 0",
+      "2018, 11520, RetraiteComplémentaireT1, 806.40, 806",
+      "2018, 11520, RetraiteComplémentaireT2, 0.00, 0",
+      "2018, 11520, InvalidititéDécès, 149.76, 150",
+      "2018, 11520, AllocationsFamiliales, 0.00, 0",
+      "2018, 11520, CSG_CRDS, 1564.42, 1564",
+      "2019, 240000, Maladie1T2, 2429.70, 2430",
+      "2019, 240000, Maladie1T1, 12866.37, 12866",
+      "2019, 240000, Maladie2, 1722.27, 1722",
+      "2019, 240000, RetraiteT1, 7193.01, 7193",
+      "2019, 240000, RetraiteT2, 1196.86, 1197",
+      "2019, 240000, RetraiteComplémentaireT1, 2657.20, 2657",
+      "2019, 240000, RetraiteComplémentaireT2, 9930.88, 9931",
+      "2019, 240000, InvalidititéDécès, 526.82, 527",
+      "2019, 240000, AllocationsFamiliales, 7440.00, 7440",
+      "2019, 240000, CSG_CRDS, 31428.00, 31428",
+      "2019, 23844, Maladie1T2, 0.00,",
+      "2019, 23844, Maladie1T1, 959.61, 960",
+      "2019, 23844, Maladie2, 202.68, 203",
+      "2019, 23844, RetraiteT1, 4232.31, 4232",
+      "2019, 23844, RetraiteT2, 0.00, 0",
+      "2019, 23844, RetraiteComplémentaireT1, 1669.08, 1669",
+      "2019, 23844, RetraiteComplémentaireT2, 0.00, 0",
+      "2019, 23844, InvalidititéDécès, 309.98, 310",
+      "2019, 23844, AllocationsFamiliales, 0.00, 0",
+      "2019, 23844, CSG_CRDS, 3122.38, 3122",
+      "2019, 11520, Maladie1T2, 0.00, 0",
+      "2019, 11520, Maladie1T1, 364.98, 365",
+      "2019, 11520, Maladie2, 137.79, 138",
+      "2019, 11520, RetraiteT1, 2044.80, 2045",
+      "2019, 11520, RetraiteT2, 0.00, 0",
+      "2019, 11520, RetraiteComplémentaireT1, 806.40, 806",
+      "2019, 11520, RetraiteComplémentaireT2, 0.00, 0",
+      "2019, 11520, InvalidititéDécès, 149.76, 150",
+      "2019, 11520, AllocationsFamiliales, 0.00, 0",
+      "2019, 11520, CSG_CRDS, 1508.55, 1509"
+  })
+  public void perYearCases(int year, long income, ContributionType type, BigDecimal expectedContribution,
+                           BigDecimal expectedRoundedValue) {
+    BaseCalculator reference = year == 2018 ? new Calculator2018() : new Calculator2019();
+    FixedPointCalculator calculator = FixedPointCalculator.of(reference);
+    BigDecimal yearlyIncome = BigDecimal.valueOf(income);
+
+    BigDecimal contribution = calculator.computeFromYearlyIncome(yearlyIncome, false).get(type.code()).contribution;
+    assertThat(contribution.setScale(2, RoundingMode.CEILING)).as("%s -- contribution", type)
+        .isEqualTo(expectedContribution);
+    if (expectedRoundedValue != null) {
+      assertThat(calculator.computeFromYearlyIncome(yearlyIncome, true).get(type.code()).contribution)
+          .as("%s -- rounded", type)
+          .isEqualByComparingTo(expectedRoundedValue);
+    }
+
+    // the cents entry point rounds with the rounding mode of the calculator
+    String[] contributionTypes = calculator.getContributionTypes();
+    long[] contributions = new long[contributionTypes.length];
+    calculator.computeFromYearlyIncome(income * 100, false, contributions);
+    long cents = contributions[Arrays.asList(contributionTypes).indexOf(type.code())];
+    assertThat(cents).as("%s -- cents", type)
+        .isEqualTo(contribution.setScale(2, reference.roundingMode).unscaledValue().longValueExact());
+    assertThat(BigDecimal.valueOf(cents, 2)).as("%s -- cents", type)
+        .isCloseTo(expectedContribution, within(new BigDecimal("0.01")));
+  }
+
+  private void assertCents(long[] actual, Map<String, ContributionInternal> expected, String[] contributionTypes,
+                           RoundingMode roundingMode, String description) {
+    for (int i = 0; i < contributionTypes.length; i++) {
+      BigDecimal contribution = expected.get(contributionTypes[i]).contribution;
+      assertThat(actual[i]).as("%s -- %s", description, contributionTypes[i])
+          .isEqualTo(contribution.setScale(2, roundingMode).unscaledValue().longValueExact());
+    }
+  }
+
+  private static List<BigDecimal> incomes(BaseCalculator reference) {
+    List<BigDecimal> incomes = new ArrayList<>();
+    // incomes used by the per-year calculator tests
+    incomes.add(BigDecimal.valueOf(240_000));
+    incomes.add(BigDecimal.valueOf(23_844));
+    incomes.add(BigDecimal.valueOf(11_520));
+    incomes.add(BigDecimal.ZERO);
+    // band thresholds
+    BigDecimal[] thresholds = {
+        reference.pass, reference.prci, reference.passX4, reference.passX5,
+        reference.pass40percent, reference.pass110, reference.pass0115, reference.pass140
+    };
+    for (BigDecimal threshold : thresholds) {
+      for (int delta = -2; delta <= 2; delta++) {
+        incomes.add(threshold.add(BigDecimal.valueOf(delta, 2)));
+      }
+    }
+    Random random = new Random(2019);
+    for (int i = 0; i < 2_000; i++) {
+      incomes.add(BigDecimal.valueOf(random.nextInt(50_000_000), 2));
+    }
+    return incomes;
+  }
+}
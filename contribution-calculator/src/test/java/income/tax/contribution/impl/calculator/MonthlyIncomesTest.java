@@ -0,0 +1,36 @@
+package income.tax.contribution.impl.calculator;
+
+import income.tax.contribution.impl.Calculator;
+import income.tax.contribution.impl.ContributionVector;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Month;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MonthlyIncomesTest {
+
+  private Calculator calculator = new Calculator2019();
+
+  @Test
+  public void computeAllMonthsInOnePass() {
+    Map<Month, BigDecimal> incomes = new HashMap<>();
+    incomes.put(Month.DECEMBER, BigDecimal.valueOf(4_000));
+    incomes.put(Month.APRIL, BigDecimal.valueOf(1_987));
+    incomes.put(Month.MAY, BigDecimal.valueOf(1_987));
+    incomes.put(Month.JANUARY, BigDecimal.ZERO);
+
+    Map<Month, ContributionVector> contributions =
+        calculator.computeFromMonthlyIncomes(incomes, true, Optional.empty());
+
+    assertThat(contributions.keySet())
+        .containsExactly(Month.JANUARY, Month.APRIL, Month.MAY, Month.DECEMBER);
+    incomes.forEach((month, income) ->
+        assertThat(contributions.get(month)).as(month.name())
+            .isEqualTo(calculator.computeFromMonthlyIncome(month, income, true, Optional.empty())));
+  }
+}
@@ -0,0 +1,77 @@
+package income.tax.contribution.impl.calculator;
+
+import income.tax.contribution.impl.Calculator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Month;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TabulatedCalculatorTest {
+
+  private static final int MAX_INCOME = 5_000;
+
+  private Calculator calculator = new Calculator2019();
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void sameResultsAsCalculator() throws IOException {
+    TabulatedCalculator tabulated = tabulated(directory.resolve("contributions.bin"));
+
+    for (int income = 0; income <= MAX_INCOME + 10; income++) {
+      for (boolean round : new boolean[]{false, true}) {
+        assertMonthlyIncome(tabulated, BigDecimal.valueOf(income), round);
+      }
+    }
+    // not in the table
+    assertMonthlyIncome(tabulated, new BigDecimal("1500.50"), false);
+    assertMonthlyIncome(tabulated, new BigDecimal("1500.00"), true);
+    assertMonthlyIncome(tabulated, BigDecimal.valueOf(-1), false);
+    assertMonthlyIncome(tabulated, BigDecimal.valueOf(1_000_000), true);
+  }
+
+  @Test
+  public void reuseGeneratedTable() throws IOException {
+    Path file = directory.resolve("contributions.bin");
+    tabulated(file);
+    long lastModified = file.toFile().lastModified();
+
+    tabulated(file);
+
+    assertThat(file.toFile().lastModified()).isEqualTo(lastModified);
+  }
+
+  @Test
+  public void regenerateCorruptedTable() throws IOException {
+    Path file = directory.resolve("contributions.bin");
+    tabulated(file);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      // the last contribution of the last row
+      channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, 42L << 8), channel.size() - Long.BYTES);
+    }
+
+    TabulatedCalculator tabulated = tabulated(file);
+
+    assertMonthlyIncome(tabulated, BigDecimal.valueOf(MAX_INCOME), true);
+  }
+
+  private TabulatedCalculator tabulated(Path file) throws IOException {
+    return new TabulatedCalculator(calculator, ContributionTable.load(calculator, file, MAX_INCOME));
+  }
+
+  private void assertMonthlyIncome(Calculator tabulated, BigDecimal income, boolean round) {
+    assertThat(tabulated.computeFromMonthlyIncome(Month.MAY, income, round, Optional.empty()))
+        .as("%s, round: %s", income, round)
+        .isEqualTo(calculator.computeFromMonthlyIncome(Month.MAY, income, round, Optional.empty()));
+  }
+}
@@ -1,73 +1,96 @@
 package income.tax.contribution.impl;
 
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
 import com.lightbend.lagom.javadsl.api.ServiceCall;
 import com.lightbend.lagom.javadsl.api.transport.TransportErrorCode;
 import com.lightbend.lagom.javadsl.api.transport.TransportException;
+import com.typesafe.config.Config;
+import income.tax.common.MonitoredExecutor;
 import income.tax.contribution.api.CalculatorService;
 import income.tax.contribution.api.Contribution;
 import income.tax.contribution.api.MonthlyIncomeRequest;
-import org.pcollections.HashTreePMap;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import income.tax.contribution.api.YearlyIncomeRequest;
+import org.pcollections.PSequence;
+import org.pcollections.TreePVector;
+import play.inject.ApplicationLifecycle;
 
 import javax.inject.Inject;
-import java.util.HashMap;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
 
 public class CalculatorServiceImpl implements CalculatorService {
 
-  private static Logger logger = LoggerFactory.getLogger(CalculatorServiceImpl.class);
-
-  private final Map<Integer, Calculator> calculators;
+  private final ContributionCalculation calculation;
+  private final int streamParallelism;
+  private final MonitoredExecutor executor;
 
   @Inject
-  public CalculatorServiceImpl(Map<Integer, Calculator> calculators) {
-    this.calculators = calculators;
+  public CalculatorServiceImpl(ContributionCalculation calculation, Config config, ApplicationLifecycle lifecycle) {
+    this.calculation = calculation;
+    this.streamParallelism = config.getInt("contribution.stream.parallelism");
+    this.executor = MonitoredExecutor.fromConfig("calculation", config.getConfig("contribution.executor.calculation"));
+    lifecycle.addStopHook(() -> {
+      executor.shutdown();
+      return CompletableFuture.completedFuture(null);
+    });
   }
 
   @Override
   public ServiceCall<MonthlyIncomeRequest, Map<String, Contribution>> compute() {
     return monthlyIncomeRequest ->
         convertErrors(
-            CompletableFuture.supplyAsync(() -> doCompute(monthlyIncomeRequest))
-                .thenApply(contributions -> convertInternalContribution(contributions))
+            executor.supplyAsync(() -> calculation.compute(monthlyIncomeRequest))
         );
   }
 
-  private Map<String, ContributionInternal> doCompute(MonthlyIncomeRequest monthlyIncomeRequest) {
-    // get the calculator
-    logger.debug("Configured calculators: {}", calculators);
-    Calculator calculator = calculators.get(monthlyIncomeRequest.year);
-    if (calculator == null) {
-      Optional<Calculator> maybeCalculator = calculators.values().stream().findFirst();
-      calculator = maybeCalculator.orElseThrow(() -> new IllegalStateException("Something went really bad. No calculator defined"));
-    }
-    Map<String, ContributionInternal> monthContributions =
-        calculator.computeFromMonthlyIncome(
-            monthlyIncomeRequest.month,
-            monthlyIncomeRequest.income,
-            monthlyIncomeRequest.round,
-            monthlyIncomeRequest.additionalArgs);
-    return monthContributions;
+  @Override
+  public ServiceCall<YearlyIncomeRequest, Map<Month, Map<String, Contribution>>> computeYear() {
+    return yearlyIncomeRequest ->
+        convertErrors(
+            executor.supplyAsync(() -> calculation.computeYear(yearlyIncomeRequest))
+        );
+  }
+
+  @Override
+  public ServiceCall<PSequence<MonthlyIncomeRequest>, PSequence<Map<String, Contribution>>> computeBatch() {
+    return monthlyIncomeRequests ->
+        convertErrors(
+            doComputeBatch(monthlyIncomeRequests)
+        );
+  }
+
+  @Override
+  public ServiceCall<Source<MonthlyIncomeRequest, NotUsed>, Source<Map<String, Contribution>, NotUsed>> computeStream() {
+    // at most streamParallelism requests in flight: the upstream is back-pressured beyond that
+    return monthlyIncomeRequests -> CompletableFuture.completedFuture(
+        monthlyIncomeRequests.mapAsync(streamParallelism, monthlyIncomeRequest ->
+            convertErrors(
+                executor.supplyAsync(() -> calculation.compute(monthlyIncomeRequest))
+            )));
   }
 
-  private Map<String, Contribution> convertInternalContribution(Map<String, ContributionInternal> contributionsInternal) {
-    Map<String, Contribution> contributions = new HashMap<>();
-    for (Map.Entry<String, ContributionInternal> entry : contributionsInternal.entrySet()) {
-      ContributionInternal contributionInternal = entry.getValue();
-      contributions.put(
-          entry.getKey(),
-          new Contribution(
-              contributionInternal.type,
-              contributionInternal.income,
-              contributionInternal.baseIncome,
-              contributionInternal.rate,
-              contributionInternal.contribution));
+  private CompletionStage<PSequence<Map<String, Contribution>>>
+  doComputeBatch(PSequence<MonthlyIncomeRequest> monthlyIncomeRequests) {
+    // one task per thread of the executor, each computing a contiguous slice: results are positional
+    int sliceSize = Math.max(1, (monthlyIncomeRequests.size() + executor.getThreads() - 1) / executor.getThreads());
+    List<CompletableFuture<List<Map<String, Contribution>>>> slices = new ArrayList<>();
+    for (int from = 0; from < monthlyIncomeRequests.size(); from += sliceSize) {
+      List<MonthlyIncomeRequest> slice =
+          monthlyIncomeRequests.subList(from, Math.min(from + sliceSize, monthlyIncomeRequests.size()));
+      slices.add(executor.supplyAsync(() -> slice.stream()
+          .map(calculation::compute)
+          .collect(Collectors.toList())));
     }
-    return HashTreePMap.from(contributions);
+    return CompletableFuture.allOf(slices.toArray(new CompletableFuture<?>[0]))
+        .thenApply(done -> TreePVector.from(slices.stream()
+            .flatMap(slice -> slice.join().stream())
+            .collect(Collectors.toList())));
   }
 
   private <T> CompletionStage<T> convertErrors(CompletionStage<T> future) {
@@ -11,7 +11,8 @@ import java.time.OffsetDateTime;
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
 @JsonSubTypes({
     @JsonSubTypes.Type(value = CalculationEvent.Registered.class, name = "income-tax-calculation-registered"),
-    @JsonSubTypes.Type(value = CalculationEvent.IncomeApplied.class, name = "income-tax-calculation-income-applied")
+    @JsonSubTypes.Type(value = CalculationEvent.IncomeApplied.class, name = "income-tax-calculation-income-applied"),
+    @JsonSubTypes.Type(value = CalculationEvent.YearClosed.class, name = "income-tax-calculation-year-closed")
 })
 public interface CalculationEvent {
 
@@ -44,4 +45,18 @@ public interface CalculationEvent {
       this.income = income;
     }
   }
+
+  @Value
+  final class YearClosed implements CalculationEvent {
+    public final String contributorId;
+    public final int year;
+    public final Income yearlyIncome;
+
+    @JsonCreator
+    public YearClosed(String contributorId, int year, Income yearlyIncome) {
+      this.contributorId = Preconditions.checkNotNull(contributorId, "contributorId");
+      this.year = year;
+      this.yearlyIncome = Preconditions.checkNotNull(yearlyIncome, "yearlyIncome");
+    }
+  }
 }
@@ -1,13 +1,14 @@
 package income.tax.api;
 
+import akka.Done;
 import akka.NotUsed;
+import akka.stream.javadsl.Source;
 import com.lightbend.lagom.javadsl.api.Descriptor;
 import com.lightbend.lagom.javadsl.api.Service;
 import com.lightbend.lagom.javadsl.api.ServiceCall;
 import com.lightbend.lagom.javadsl.api.broker.Topic;
 import com.lightbend.lagom.javadsl.api.broker.kafka.KafkaProperties;
-import org.pcollections.PSequence;
-
+import com.lightbend.lagom.javadsl.api.transport.Method;
 import java.util.Optional;
 
 import static com.lightbend.lagom.javadsl.api.Service.*;
@@ -35,12 +36,28 @@ public interface CalculationService extends Service {
    */
   ServiceCall<RegistrationRequest, Contributions> register();
 
-  ServiceCall<NotUsed, PSequence<Contributor>> getContributors();
+  /**
+   * Lists the contributors, of a region or all of them, a page at a time: the next page is requested with the
+   * {@code pagingState} cursor of the current one.
+   */
+  ServiceCall<NotUsed, ContributorPage> getContributors(
+      Optional<String> region, Optional<Integer> pageSize, Optional<String> pagingState);
+
+  /**
+   * Streams the contributors, of a region or all of them, read page by page as the stream is consumed.
+   */
+  ServiceCall<NotUsed, Source<Contributor, NotUsed>> streamContributors(Optional<String> region);
 
   ServiceCall<NotUsed, Contributions> getContributions(String contributorId, Optional<Integer> year);
 
   ServiceCall<Income, Contributions> applyIncome(String contributorId, boolean scaleToEnd, boolean dryRun);
 
+  /**
+   * Closes the contribution year of a contributor: the year is archived as a yearly income and the contributor
+   * declares the incomes of the next year.
+   */
+  ServiceCall<NotUsed, Done> closeYear(String contributorId, int year);
+
   /**
    * This gets published to Kafka.
    */
@@ -51,9 +68,11 @@ public interface CalculationService extends Service {
     // @formatter:off
     return named("income").withCalls(
         pathCall("/api/income/contributors", this::register),
-        pathCall("/api/income/contributors", this::getContributors),
+        pathCall("/api/income/contributors?region&pageSize&pagingState", this::getContributors),
+        pathCall("/api/income/contributors/stream?region", this::streamContributors),
         pathCall("/api/income/contributions/:contributorId/declare?scaleToEnd&dryRun", this::applyIncome),
-        pathCall("/api/income/contributions/:contributorId?year", this::getContributions)
+        pathCall("/api/income/contributions/:contributorId?year", this::getContributions),
+        restCall(Method.POST, "/api/income/contributions/:contributorId/close/:year", this::closeYear)
     ).withTopics(
         topic("calculation-events", this::calculationEvents)
             // Kafka partitions messages, messages within the same partition will
@@ -0,0 +1,28 @@
+package income.tax.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.NonNull;
+import lombok.Value;
+import org.pcollections.PSequence;
+
+import java.util.Optional;
+
+/**
+ * A page of contributors, with the cursor of the next page (empty on the last page).
+ */
+@Value
+@JsonDeserialize
+public class ContributorPage {
+
+  public final @NonNull
+  PSequence<Contributor> contributors;
+  public final @NonNull
+  Optional<String> next;
+
+  @JsonCreator
+  public ContributorPage(PSequence<Contributor> contributors, Optional<String> next) {
+    this.contributors = contributors;
+    this.next = next;
+  }
+}
@@ -1,20 +1,59 @@
 package income.tax.impl;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Singleton;
+import com.google.inject.multibindings.MapBinder;
 import com.lightbend.lagom.javadsl.server.ServiceGuiceSupport;
+import com.typesafe.config.Config;
 import income.tax.api.CalculationService;
 import income.tax.contribution.api.CalculatorService;
+import income.tax.contribution.impl.Calculator;
+import income.tax.contribution.impl.Calculators;
+import income.tax.impl.readside.ContributionCacheSubscriber;
 import income.tax.impl.readside.ContributionRepository;
 import income.tax.impl.readside.ContributionRepositoryCassandraImpl;
+import income.tax.impl.readside.RegionIndexMigration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.Environment;
 
 /**
  * The module that binds the HelloService so that it can be served.
  */
 public class CalculationModule extends AbstractModule implements ServiceGuiceSupport {
+  private static Logger logger = LoggerFactory.getLogger(CalculationModule.class);
+
+  private final Config config;
+
+  public CalculationModule(Environment environment, Config config) {
+    this.config = config;
+  }
+
   @Override
   protected void configure() {
     bindService(CalculationService.class, CalculationServiceImpl.class);
     bind(ContributionRepository.class).to(ContributionRepositoryCassandraImpl.class);
-    bindClient(CalculatorService.class);
+    // Bind the subscriber eagerly so that the cache receives the invalidations of the other nodes from the start
+    bind(ContributionCacheSubscriber.class).asEagerSingleton();
+    // Bind the migration eagerly so that the region index is completed from the start
+    bind(RegionIndexMigration.class).asEagerSingleton();
+
+    String mode = config.getString("income.calculator.mode");
+    switch (mode) {
+      case "remote":
+        bindClient(CalculatorService.class);
+        break;
+      case "embedded":
+        // the calculator service is not served: it is only called in process
+        logger.info("Contributions computed in process");
+        MapBinder<Integer, Calculator> calculatorBindings =
+            MapBinder.newMapBinder(binder(), Integer.class, Calculator.class);
+        Calculators.load(config).forEach((year, calculator) ->
+            calculatorBindings.addBinding(year).toInstance(calculator));
+        bind(CalculatorService.class).to(EmbeddedCalculatorService.class).in(Singleton.class);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown income.calculator.mode: " + mode);
+    }
   }
 }
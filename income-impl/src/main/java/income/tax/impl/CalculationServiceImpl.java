@@ -1,7 +1,9 @@
 package income.tax.impl;
 
+import akka.Done;
 import akka.NotUsed;
 import akka.japi.Pair;
+import akka.stream.javadsl.Source;
 import com.lightbend.lagom.javadsl.api.ServiceCall;
 import com.lightbend.lagom.javadsl.api.broker.Topic;
 import com.lightbend.lagom.javadsl.api.transport.BadRequest;
@@ -13,9 +15,10 @@ import com.lightbend.lagom.javadsl.persistence.PersistentEntityRef;
 import com.lightbend.lagom.javadsl.persistence.PersistentEntityRegistry;
 import com.lightbend.lagom.javadsl.persistence.ReadSide;
 import income.tax.api.*;
+import income.tax.common.MonitoredExecutor;
 import income.tax.contribution.api.CalculatorService;
 import income.tax.contribution.api.Contribution;
-import income.tax.contribution.api.MonthlyIncomeRequest;
+import income.tax.contribution.api.YearlyIncomeRequest;
 import income.tax.impl.domain.IncomeTaxCommand;
 import income.tax.impl.domain.IncomeTaxEntity;
 import income.tax.impl.domain.IncomeTaxEvent;
@@ -39,7 +42,6 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -49,20 +51,27 @@ public class CalculationServiceImpl implements CalculationService {
 
   private static Logger logger = LoggerFactory.getLogger(CalculationServiceImpl.class);
 
+  // contributors read at a time
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_PAGE_SIZE = 1000;
+
   private final PersistentEntityRegistry persistentEntityRegistry;
   private final ContributionRepository repository;
   private final CalculatorService calculatorService;
+  private final MonitoredExecutor orchestration;
 
   @Inject
   public CalculationServiceImpl(
       PersistentEntityRegistry persistentEntityRegistry,
       ReadSide readSide,
       ContributionRepository repository,
-      CalculatorService calculatorService
+      CalculatorService calculatorService,
+      IncomeExecutors executors
   ) {
     this.persistentEntityRegistry = persistentEntityRegistry;
     this.repository = repository;
     this.calculatorService = calculatorService;
+    this.orchestration = executors.orchestration();
 
     persistentEntityRegistry.register(IncomeTaxEntity.class);
     readSide.register(EventStreamProcessor.class);
@@ -77,8 +86,15 @@ public class CalculationServiceImpl implements CalculationService {
   }
 
   @Override
-  public ServiceCall<NotUsed, PSequence<Contributor>> getContributors() {
-    return request -> convertErrors(repository.findContributors());
+  public ServiceCall<NotUsed, ContributorPage> getContributors(
+      Optional<String> region, Optional<Integer> pageSize, Optional<String> pagingState) {
+    int size = Math.max(1, Math.min(pageSize.orElse(DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE));
+    return request -> convertErrors(repository.findContributors(region, size, pagingState));
+  }
+
+  @Override
+  public ServiceCall<NotUsed, Source<Contributor, NotUsed>> streamContributors(Optional<String> region) {
+    return request -> CompletableFuture.completedFuture(repository.streamContributors(region, DEFAULT_PAGE_SIZE));
   }
 
   @Override
@@ -95,28 +111,33 @@ public class CalculationServiceImpl implements CalculationService {
         convertErrors(doApplyIncome(contributorId, income, scaleToEnd, dryRun));
   }
 
+  @Override
+  public ServiceCall<NotUsed, Done> closeYear(String contributorId, int year) {
+    return request ->
+        convertErrors(entityRef(contributorId).ask(new IncomeTaxCommand.CloseYear(contributorId, year)));
+  }
+
   private CompletionStage<Contributions>
   doRegister(String contributorId, OffsetDateTime registrationDate, long previousYearlyIncome, IncomeType incomeType) {
 
-    CompletableFuture<IncomeTaxCommand.Register> getCommand = CompletableFuture.supplyAsync(() -> {
-      int year = registrationDate.getYear();
-      // apply income before registration to the current year (ie, the registration year)
-      // scale income to a full year
-      Income yearlyIncome = IncomeUtils.yearIncome(previousYearlyIncome, year, incomeType);
-
-      // spread out income over every month
-      Map<Month, Income> spreadIncome = IncomeUtils.spreadOutOverMonths(yearlyIncome);
-
-      // compute contribution for each months
-      final PMap<Month, PMap<String, Contribution>> calculatedContributions = getContributions(year, spreadIncome);
-
-      return new IncomeTaxCommand.Register(
-          contributorId, registrationDate,
-          previousYearlyIncome, incomeType, calculatedContributions
-      );
-    });
-
-    return getCommand.thenCompose(cmd -> entityRef(contributorId).ask(cmd));
+    // errors are reported by the returned stage, nothing blocks
+    // an already registered contributor is rejected before computing contributions
+    return entityRef(contributorId).ask(new IncomeTaxCommand.ValidateRegistration(contributorId))
+        .thenCompose(done -> orchestration.supplyAsync(() -> {
+          // apply income before registration to the current year (ie, the registration year)
+          // scale income to a full year
+          Income yearlyIncome = IncomeUtils.yearIncome(previousYearlyIncome, registrationDate.getYear(), incomeType);
+
+          // spread out income over every month
+          return IncomeUtils.spreadOutOverMonths(yearlyIncome);
+        }))
+        // compute contribution for each months
+        .thenCompose(spreadIncome -> getContributions(registrationDate.getYear(), spreadIncome))
+        .thenApply(calculatedContributions -> new IncomeTaxCommand.Register(
+            contributorId, registrationDate,
+            previousYearlyIncome, incomeType, calculatedContributions
+        ))
+        .thenCompose(cmd -> entityRef(contributorId).ask(cmd));
   }
 
   private PersistentEntityRef<IncomeTaxCommand> entityRef(String contributorId) {
@@ -126,44 +147,51 @@ public class CalculationServiceImpl implements CalculationService {
   private CompletionStage<Contributions>
   doApplyIncome(String contributorId, Income income, boolean scaleToEnd, boolean dryRun) {
 
-    CompletableFuture<IncomeTaxCommand.ApplyIncome> getCommand = CompletableFuture.supplyAsync(() -> {
-      logger.debug("Applying income for #{}: {}", contributorId, income);
-      int year = income.start.getYear();
-
-      // scale income or adjust to complete month
-      Income normalizedIncomeIncome = normalizeIncome(income, scaleToEnd);
-      logger.debug("Normalized income for #{}: {}", contributorId, normalizedIncomeIncome);
-
-      // spread income over months
-      PMap<Month, Income> spreadIncome = HashTreePMap.from(IncomeUtils.spreadOutOverMonths(normalizedIncomeIncome));
-      logger.debug("Spread out income for #{}: {}", contributorId, spreadIncome);
-
-      // compute contribution for each months
-      final PMap<Month, PMap<String, Contribution>> calculatedContributions = getContributions(year, spreadIncome);
-      logger.debug("Contributions for #{}: {}", contributorId, calculatedContributions);
-
-      return new IncomeTaxCommand.ApplyIncome(contributorId, normalizedIncomeIncome, scaleToEnd, dryRun, calculatedContributions);
-    });
-
-    return getCommand.thenCompose(applyIncome -> entityRef(contributorId).ask(applyIncome));
+    logger.debug("Applying income for #{}: {}", contributorId, income);
+
+    // scale income or adjust to complete month
+    return orchestration.supplyAsync(() -> normalizeIncome(income, scaleToEnd))
+        // an income the entity would reject is rejected before computing contributions
+        .thenCompose(normalizedIncome ->
+            entityRef(contributorId).ask(new IncomeTaxCommand.ValidateIncome(contributorId, normalizedIncome))
+                .thenApply(done -> normalizedIncome))
+        .thenCompose(normalizedIncome -> {
+          logger.debug("Normalized income for #{}: {}", contributorId, normalizedIncome);
+          int year = normalizedIncome.start.getYear();
+
+          // spread income over months
+          PMap<Month, Income> spreadIncome = HashTreePMap.from(IncomeUtils.spreadOutOverMonths(normalizedIncome));
+          logger.debug("Spread out income for #{}: {}", contributorId, spreadIncome);
+
+          // compute contribution for each months
+          return getContributions(year, spreadIncome)
+              .thenApply(calculatedContributions -> {
+                logger.debug("Contributions for #{}: {}", contributorId, calculatedContributions);
+                return new IncomeTaxCommand.ApplyIncome(
+                    contributorId, normalizedIncome, scaleToEnd, dryRun, calculatedContributions);
+              });
+        })
+        .thenCompose(applyIncome -> entityRef(contributorId).ask(applyIncome));
   }
 
-  private PMap<Month, PMap<String, Contribution>> getContributions(int year, Map<Month, Income> incomes) {
-    final Map<Month, CompletableFuture<Map<String, Contribution>>> futures = new ConcurrentHashMap<>();
-    incomes.forEach((month, income) -> {
-      MonthlyIncomeRequest request =
-          new MonthlyIncomeRequest(
-              BigDecimal.valueOf(income.income),
-              year, month,
-              false, Optional.empty());
-      CompletableFuture<Map<String, Contribution>> future = calculatorService.compute().invoke(request).toCompletableFuture();
-      futures.put(month, future);
-    });
-
-    Map<Month, PMap<String, Contribution>> allContributions = futures.entrySet().stream()
-        .collect(Collectors.toMap(Map.Entry::getKey, e -> HashTreePMap.from(e.getValue().join())));
-    return HashTreePMap.from(allContributions);
-
+  private CompletionStage<PMap<Month, PMap<String, Contribution>>>
+  getContributions(int year, Map<Month, Income> incomes) {
+    // compute each distinct income once (for its first month), in one call
+    Map<Long, Set<Month>> monthsByIncome = IncomeUtils.monthsByIncome(incomes);
+    Map<Month, BigDecimal> monthlyIncomes = new EnumMap<>(Month.class);
+    monthsByIncome.forEach((income, months) -> monthlyIncomes.put(months.iterator().next(), BigDecimal.valueOf(income)));
+    YearlyIncomeRequest request = new YearlyIncomeRequest(year, monthlyIncomes, false, Optional.empty());
+
+    return calculatorService.computeYear().invoke(request)
+        .thenApply(contributions -> {
+          // share the contributions of an income with all its months
+          Map<Month, PMap<String, Contribution>> allContributions = new EnumMap<>(Month.class);
+          monthsByIncome.forEach((income, months) -> {
+            PMap<String, Contribution> incomeContributions = HashTreePMap.from(contributions.get(months.iterator().next()));
+            months.forEach(month -> allContributions.put(month, incomeContributions));
+          });
+          return HashTreePMap.from(allContributions);
+        });
   }
 
   @Override
@@ -190,6 +218,10 @@ public class CalculationServiceImpl implements CalculationService {
             eventToPublish =
                 new CalculationEvent.IncomeApplied(
                     incomeApplied.contributorId, incomeApplied.income);
+          } else if (eventAndOffset.first() instanceof IncomeTaxEvent.YearClosed) {
+            IncomeTaxEvent.YearClosed yearClosed = (IncomeTaxEvent.YearClosed) eventAndOffset.first();
+            eventToPublish =
+                new CalculationEvent.YearClosed(yearClosed.contributorId, yearClosed.year, yearClosed.yearlyIncome);
           } else {
             throw new IllegalArgumentException("Unknown event: " + eventAndOffset.first());
           }
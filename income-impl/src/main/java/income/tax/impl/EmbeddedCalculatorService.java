@@ -0,0 +1,67 @@
+package income.tax.impl;
+
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
+import com.lightbend.lagom.javadsl.api.ServiceCall;
+import com.lightbend.lagom.javadsl.api.transport.TransportErrorCode;
+import com.lightbend.lagom.javadsl.api.transport.TransportException;
+import income.tax.common.MonitoredExecutor;
+import income.tax.contribution.api.CalculatorService;
+import income.tax.contribution.api.Contribution;
+import income.tax.contribution.api.MonthlyIncomeRequest;
+import income.tax.contribution.api.YearlyIncomeRequest;
+import income.tax.contribution.impl.ContributionCalculation;
+import org.pcollections.PSequence;
+import org.pcollections.TreePVector;
+
+import javax.inject.Inject;
+import java.time.Month;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+/**
+ * The calculator service of the embedded mode: the contributions are computed in process, on the calculation
+ * executor of the income service.
+ */
+public class EmbeddedCalculatorService implements CalculatorService {
+
+  private final ContributionCalculation calculation;
+  private final MonitoredExecutor executor;
+
+  @Inject
+  public EmbeddedCalculatorService(ContributionCalculation calculation, IncomeExecutors executors) {
+    this.calculation = calculation;
+    this.executor = executors.calculation();
+  }
+
+  @Override
+  public ServiceCall<MonthlyIncomeRequest, Map<String, Contribution>> compute() {
+    return monthlyIncomeRequest -> convertErrors(executor.supplyAsync(() -> calculation.compute(monthlyIncomeRequest)));
+  }
+
+  @Override
+  public ServiceCall<YearlyIncomeRequest, Map<Month, Map<String, Contribution>>> computeYear() {
+    return yearlyIncomeRequest -> convertErrors(executor.supplyAsync(() -> calculation.computeYear(yearlyIncomeRequest)));
+  }
+
+  @Override
+  public ServiceCall<PSequence<MonthlyIncomeRequest>, PSequence<Map<String, Contribution>>> computeBatch() {
+    return monthlyIncomeRequests -> convertErrors(executor.supplyAsync(() ->
+        TreePVector.from(monthlyIncomeRequests.stream().map(calculation::compute).collect(Collectors.toList()))));
+  }
+
+  @Override
+  public ServiceCall<Source<MonthlyIncomeRequest, NotUsed>, Source<Map<String, Contribution>, NotUsed>> computeStream() {
+    return monthlyIncomeRequests -> CompletableFuture.completedFuture(
+        monthlyIncomeRequests.mapAsync(executor.getThreads(), monthlyIncomeRequest ->
+            convertErrors(executor.supplyAsync(() -> calculation.compute(monthlyIncomeRequest)))));
+  }
+
+  private <T> CompletionStage<T> convertErrors(CompletionStage<T> future) {
+    return future.exceptionally(ex -> {
+      throw new TransportException(TransportErrorCode.InternalServerError, "Unexpected error", ex);
+    });
+  }
+}
@@ -0,0 +1,45 @@
+package income.tax.impl;
+
+import com.typesafe.config.Config;
+import income.tax.common.MonitoredExecutor;
+import play.inject.ApplicationLifecycle;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The executors of the income service, configured by {@code income.executor}, shut down with the application.
+ */
+@Singleton
+public class IncomeExecutors {
+
+  private final MonitoredExecutor orchestration;
+  private final MonitoredExecutor readSide;
+  private final MonitoredExecutor calculation;
+
+  @Inject
+  public IncomeExecutors(Config config, ApplicationLifecycle lifecycle) {
+    this.orchestration = MonitoredExecutor.fromConfig("orchestration", config.getConfig("income.executor.orchestration"));
+    this.readSide = MonitoredExecutor.fromConfig("read-side", config.getConfig("income.executor.read-side"));
+    this.calculation = MonitoredExecutor.fromConfig("calculation", config.getConfig("income.executor.calculation"));
+    lifecycle.addStopHook(() -> {
+      orchestration.shutdown();
+      readSide.shutdown();
+      calculation.shutdown();
+      return CompletableFuture.completedFuture(null);
+    });
+  }
+
+  public MonitoredExecutor orchestration() {
+    return orchestration;
+  }
+
+  public MonitoredExecutor readSide() {
+    return readSide;
+  }
+
+  public MonitoredExecutor calculation() {
+    return calculation;
+  }
+}
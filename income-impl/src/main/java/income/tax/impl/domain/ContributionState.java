@@ -4,36 +4,316 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.google.common.base.Preconditions;
 import income.tax.contribution.api.Contribution;
-import lombok.NonNull;
-import lombok.Value;
 import org.pcollections.HashTreePMap;
 import org.pcollections.PMap;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-@Value
+/**
+ * The contributions of the current year, by month and by contribution type.
+ * <p>
+ * The contributions of the {@link ContributionType known types} are held in a dense month x type table of scaled
+ * longs (the unscaled value and the scale of each amount), the others (unknown types, amounts not fitting a long)
+ * in a map. The state is immutable: {@link #update(Map)} copies the table.
+ * <p>
+ * The totals by contribution type are maintained by {@link #update(Map)} from the months it replaces.
+ */
 @JsonDeserialize
-public class ContributionState {
+public final class ContributionState {
 
-  public final @NonNull
-  PMap<Month, PMap<String, Contribution>> contributions;
+  private static final ContributionType[] TYPES = ContributionType.values();
+  private static final Map<String, ContributionType> TYPES_BY_CODE =
+      Stream.of(TYPES).collect(Collectors.toMap(ContributionType::code, type -> type));
+
+  private static final int MONTHS = Month.values().length;
+  // amounts of a contribution: income, base income, rate and contribution
+  private static final int AMOUNTS = 4;
+  private static final int MONTH_AMOUNTS = TYPES.length * AMOUNTS;
+
+  private static final ContributionState EMPTY = emptyMonths();
+
+  // months having contributions (possibly none), a bit per month
+  private final int months;
+  // types of the contributions of each month, a bit per type
+  private final int[] types;
+  private final long[] unscaledAmounts;
+  private final byte[] scales;
+  // contributions not fitting the table
+  private final PMap<Month, PMap<String, Contribution>> others;
+  // derived from the contributions
+  private final Map<String, BigDecimal> totals;
 
   @JsonCreator
   public ContributionState(PMap<Month, PMap<String, Contribution>> contributions) {
-    this.contributions = Preconditions.checkNotNull(contributions);
+    this(new Table().put(Preconditions.checkNotNull(contributions)));
+  }
+
+  private ContributionState(Table table) {
+    this.months = table.months;
+    this.types = table.types;
+    this.unscaledAmounts = table.unscaledAmounts;
+    this.scales = table.scales;
+    this.others = table.others;
+    this.totals = Collections.unmodifiableMap(table.totals);
   }
 
   public static ContributionState empty() {
-    Map<Month, PMap<String, Contribution>> contributions = new HashMap<>();
-    Stream.of(Month.values())
-        .forEach(month -> contributions.put(month, HashTreePMap.empty()));
-    return new ContributionState(HashTreePMap.from(contributions));
+    return EMPTY;
   }
 
+  private static ContributionState emptyMonths() {
+    Map<Month, PMap<String, Contribution>> contributions = new EnumMap<>(Month.class);
+    for (Month month : Month.values()) {
+      contributions.put(month, HashTreePMap.empty());
+    }
+    return new ContributionState(new Table().put(contributions));
+  }
+
+  /**
+   * Returns a state where the contributions of the given months replace the current ones.
+   */
   public ContributionState update(Map<Month, PMap<String, Contribution>> newContributions) {
-    return new ContributionState(this.contributions.plusAll(newContributions));
+    return new ContributionState(new Table(this).put(newContributions));
+  }
+
+  public PMap<Month, PMap<String, Contribution>> getContributions() {
+    Map<Month, PMap<String, Contribution>> contributions = new EnumMap<>(Month.class);
+    for (Month month : Month.values()) {
+      if ((months & (1 << month.ordinal())) != 0) {
+        contributions.put(month, contributionsOf(month));
+      }
+    }
+    return HashTreePMap.from(contributions);
+  }
+
+  /**
+   * Returns the contributions of each month, in month order.
+   */
+  public Map<Month, List<Contribution>> byMonth() {
+    Map<Month, List<Contribution>> contributions = new EnumMap<>(Month.class);
+    for (Month month : Month.values()) {
+      if ((months & (1 << month.ordinal())) != 0) {
+        List<Contribution> monthContributions = new ArrayList<>(TYPES.length);
+        forEach(month, (key, contribution) -> monthContributions.add(contribution));
+        contributions.put(month, monthContributions);
+      }
+    }
+    return contributions;
+  }
+
+  /**
+   * Returns the total of the contributions of each type.
+   */
+  public Map<String, BigDecimal> totals() {
+    return totals;
+  }
+
+  private PMap<String, Contribution> contributionsOf(Month month) {
+    Map<String, Contribution> contributions = new HashMap<>();
+    forEach(month, contributions::put);
+    return HashTreePMap.from(contributions);
+  }
+
+  private void forEach(Month month, BiConsumer<String, Contribution> action) {
+    int monthTypes = types[month.ordinal()];
+    for (ContributionType type : TYPES) {
+      if ((monthTypes & (1 << type.ordinal())) != 0) {
+        int at = month.ordinal() * MONTH_AMOUNTS + type.ordinal() * AMOUNTS;
+        action.accept(type.code(), new Contribution(
+            type.code(), amount(unscaledAmounts, scales, at), amount(unscaledAmounts, scales, at + 1),
+            amount(unscaledAmounts, scales, at + 2), amount(unscaledAmounts, scales, at + 3)));
+      }
+    }
+    PMap<String, Contribution> otherContributions = others.get(month);
+    if (otherContributions != null) {
+      otherContributions.forEach(action);
+    }
+  }
+
+  private static BigDecimal amount(long[] unscaledAmounts, byte[] scales, int at) {
+    return BigDecimal.valueOf(unscaledAmounts[at], scales[at]);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ContributionState)) {
+      return false;
+    }
+    ContributionState that = (ContributionState) o;
+    // the representation is canonical: equal contributions have equal tables (totals are derived)
+    return months == that.months
+        && Arrays.equals(types, that.types)
+        && Arrays.equals(unscaledAmounts, that.unscaledAmounts)
+        && Arrays.equals(scales, that.scales)
+        && others.equals(that.others);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(months, Arrays.hashCode(types), Arrays.hashCode(unscaledAmounts), Arrays.hashCode(scales), others);
+  }
+
+  @Override
+  public String toString() {
+    return "ContributionState(contributions=" + getContributions() + ")";
+  }
+
+  /**
+   * The table of a state being built.
+   */
+  private static class Table {
+    private int months;
+    private final int[] types;
+    private final long[] unscaledAmounts;
+    private final byte[] scales;
+    private PMap<Month, PMap<String, Contribution>> others;
+    private final Map<String, BigDecimal> totals;
+    // types whose total changed
+    private final Set<String> changedTypes = new HashSet<>();
+
+    Table() {
+      this.types = new int[MONTHS];
+      this.unscaledAmounts = new long[MONTHS * MONTH_AMOUNTS];
+      this.scales = new byte[MONTHS * MONTH_AMOUNTS];
+      this.others = HashTreePMap.empty();
+      this.totals = new LinkedHashMap<>();
+    }
+
+    Table(ContributionState state) {
+      this.months = state.months;
+      this.types = state.types.clone();
+      this.unscaledAmounts = state.unscaledAmounts.clone();
+      this.scales = state.scales.clone();
+      this.others = state.others;
+      this.totals = new LinkedHashMap<>(state.totals);
+    }
+
+    Table put(Map<Month, ? extends Map<String, Contribution>> contributions) {
+      for (Map.Entry<Month, ? extends Map<String, Contribution>> entry : contributions.entrySet()) {
+        put(entry.getKey(), entry.getValue());
+      }
+      changedTypes.forEach(this::rescaleTotal);
+      changedTypes.clear();
+      return this;
+    }
+
+    private void put(Month month, Map<String, Contribution> contributions) {
+      int m = month.ordinal();
+      subtractFromTotals(m);
+      months |= 1 << m;
+      types[m] = 0;
+      Arrays.fill(unscaledAmounts, m * MONTH_AMOUNTS, (m + 1) * MONTH_AMOUNTS, 0L);
+      Arrays.fill(scales, m * MONTH_AMOUNTS, (m + 1) * MONTH_AMOUNTS, (byte) 0);
+      others = others.minus(month);
+
+      Map<String, Contribution> otherContributions = new HashMap<>();
+      for (Map.Entry<String, Contribution> entry : contributions.entrySet()) {
+        Contribution contribution = entry.getValue();
+        addToTotal(contribution.type, contribution.contribution);
+        ContributionType type = TYPES_BY_CODE.get(entry.getKey());
+        if (type != null && type.code().equals(contribution.type) && fits(contribution)) {
+          types[m] |= 1 << type.ordinal();
+          int at = m * MONTH_AMOUNTS + type.ordinal() * AMOUNTS;
+          setAmount(at, contribution.income);
+          setAmount(at + 1, contribution.baseIncome);
+          setAmount(at + 2, contribution.rate);
+          setAmount(at + 3, contribution.contribution);
+        } else {
+          otherContributions.put(entry.getKey(), contribution);
+        }
+      }
+      if (!otherContributions.isEmpty()) {
+        others = others.plus(month, HashTreePMap.from(otherContributions));
+      }
+    }
+
+    private void subtractFromTotals(int m) {
+      for (ContributionType type : TYPES) {
+        if ((types[m] & (1 << type.ordinal())) != 0) {
+          int at = m * MONTH_AMOUNTS + type.ordinal() * AMOUNTS + 3;
+          addToTotal(type.code(), amount(unscaledAmounts, scales, at).negate());
+        }
+      }
+      PMap<String, Contribution> otherContributions = others.get(Month.values()[m]);
+      if (otherContributions != null) {
+        for (Contribution contribution : otherContributions.values()) {
+          if (contribution.contribution != null) {
+            addToTotal(contribution.type, contribution.contribution.negate());
+          }
+        }
+      }
+    }
+
+    private void addToTotal(String type, BigDecimal amount) {
+      if (amount != null) {
+        totals.merge(type, amount, BigDecimal::add);
+        changedTypes.add(type);
+      }
+    }
+
+    /**
+     * Gives the total of a type the scale of a sum of its contributions, removing it when there are none left.
+     */
+    private void rescaleTotal(String type) {
+      int scale = 0;
+      boolean found = false;
+      ContributionType contributionType = TYPES_BY_CODE.get(type);
+      if (contributionType != null) {
+        for (int m = 0; m < MONTHS; m++) {
+          if ((types[m] & (1 << contributionType.ordinal())) != 0) {
+            found = true;
+            scale = Math.max(scale, scales[m * MONTH_AMOUNTS + contributionType.ordinal() * AMOUNTS + 3]);
+          }
+        }
+      }
+      for (PMap<String, Contribution> otherContributions : others.values()) {
+        for (Contribution contribution : otherContributions.values()) {
+          if (type.equals(contribution.type) && contribution.contribution != null) {
+            found = true;
+            scale = Math.max(scale, contribution.contribution.scale());
+          }
+        }
+      }
+      if (found) {
+        totals.put(type, totals.get(type).setScale(scale, RoundingMode.UNNECESSARY));
+      } else {
+        totals.remove(type);
+      }
+    }
+
+    private void setAmount(int at, BigDecimal amount) {
+      unscaledAmounts[at] = amount.unscaledValue().longValueExact();
+      scales[at] = (byte) amount.scale();
+    }
+
+    private static boolean fits(Contribution contribution) {
+      return fits(contribution.income) && fits(contribution.baseIncome)
+          && fits(contribution.rate) && fits(contribution.contribution);
+    }
+
+    private static boolean fits(BigDecimal amount) {
+      return amount != null
+          && amount.unscaledValue().bitLength() < Long.SIZE
+          && amount.scale() >= Byte.MIN_VALUE && amount.scale() <= Byte.MAX_VALUE;
+    }
   }
 }
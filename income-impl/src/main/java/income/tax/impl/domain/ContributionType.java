@@ -0,0 +1,32 @@
+package income.tax.impl.domain;
+
+/**
+ * The contribution types held in the table of a {@link ContributionState}, by the code the calculators give them.
+ * <p>
+ * The contributions of other types are kept by the state as well, outside of its table.
+ */
+public enum ContributionType {
+  Maladie1T2("MLD1T2"),
+  Maladie1T1("MLD1T1"),
+  Maladie1("MAL1"),
+  Maladie2("MAL2"),
+  RetraiteT1("RVB T1"),
+  RetraiteT2("RVB T2"),
+  Retraite("RVB"),
+  RetraiteComplémentaireT1("RCI T1"),
+  RetraiteComplémentaireT2("RCI T2"),
+  RetraiteComplémentaire("RCI"),
+  InvalidititéDécès("RID"),
+  AllocationsFamiliales("AF"),
+  CSG_CRDS("CSG/CRDS");
+
+  private final String code;
+
+  ContributionType(String code) {
+    this.code = code;
+  }
+
+  public String code() {
+    return code;
+  }
+}
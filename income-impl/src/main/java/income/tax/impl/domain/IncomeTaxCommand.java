@@ -1,5 +1,6 @@
 package income.tax.impl.domain;
 
+import akka.Done;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.google.common.base.Preconditions;
@@ -89,4 +90,59 @@ public interface IncomeTaxCommand extends Jsonable {
     }
   }
 
+  /**
+   * A read-only command checking that the contributor is not registered yet.
+   * <p>
+   * Sent before computing the contributions of a registration: the {@link Register} command checks it again.
+   */
+  @SuppressWarnings("serial")
+  @Value
+  @JsonDeserialize
+  final class ValidateRegistration implements IncomeTaxCommand, PersistentEntity.ReplyType<Done> {
+    public final @NonNull String contributorId;
+
+    @JsonCreator
+    public ValidateRegistration(String contributorId) {
+      this.contributorId = Preconditions.checkNotNull(contributorId, "contributorId");
+    }
+  }
+
+  /**
+   * A read-only command checking that an income can be applied: the contributor is registered and the income
+   * belongs to the contribution year.
+   * <p>
+   * Sent before computing the contributions of the income: the {@link ApplyIncome} command checks it again.
+   */
+  @SuppressWarnings("serial")
+  @Value
+  @JsonDeserialize
+  final class ValidateIncome implements IncomeTaxCommand, PersistentEntity.ReplyType<Done> {
+    public final @NonNull String contributorId;
+    public final @NonNull Income income;
+
+    @JsonCreator
+    public ValidateIncome(String contributorId, Income income) {
+      this.contributorId = Preconditions.checkNotNull(contributorId, "contributorId");
+      this.income = Preconditions.checkNotNull(income, "income");
+    }
+  }
+
+  /**
+   * A command to close the contribution year: its incomes are archived as a yearly income and the next year
+   * becomes the contribution year.
+   */
+  @SuppressWarnings("serial")
+  @Value
+  @JsonDeserialize
+  final class CloseYear implements IncomeTaxCommand, PersistentEntity.ReplyType<Done> {
+    public final @NonNull String contributorId;
+    public final int year;
+
+    @JsonCreator
+    public CloseYear(String contributorId, int year) {
+      this.contributorId = Preconditions.checkNotNull(contributorId, "contributorId");
+      this.year = year;
+    }
+  }
+
 }
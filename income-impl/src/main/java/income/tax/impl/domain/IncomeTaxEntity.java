@@ -1,9 +1,10 @@
 package income.tax.impl.domain;
 
+import akka.Done;
 import com.lightbend.lagom.javadsl.persistence.PersistentEntity;
 import income.tax.api.Contributions;
 import income.tax.api.Income;
-import income.tax.contribution.api.Contribution;
+import income.tax.api.IncomeType;
 import income.tax.impl.IncomeTaxException;
 import income.tax.impl.domain.IncomeTaxCommand.ApplyIncome;
 import income.tax.impl.domain.IncomeTaxCommand.Register;
@@ -11,16 +12,15 @@ import income.tax.impl.domain.IncomeTaxEvent.Registered;
 import income.tax.impl.message.Messages;
 import income.tax.impl.tools.IncomeUtils;
 import lombok.extern.slf4j.Slf4j;
-import org.pcollections.PMap;
 
+import javax.inject.Inject;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.TemporalAdjusters;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 /**
  * This is an event sourced entity. It has a state, {@link IncomeTaxState}, which
@@ -40,16 +40,38 @@ import java.util.stream.Collectors;
  * <p>
  * This entity defines one event, the {@link Registered} event,
  * which is emitted when a {@link Register} command is received.
+ * <p>
+ * A snapshot of the state is saved every {@code lagom.persistence.snapshot-after} events, and each recovery is
+ * reported to the {@link RecoveryMetrics}.
  */
 @Slf4j
 public class IncomeTaxEntity extends PersistentEntity<IncomeTaxCommand, IncomeTaxEvent, IncomeTaxState> {
 
+  private final RecoveryMetrics recoveryMetrics;
+
+  // recovery of the activation, from its creation (snapshot read included) until it completes
+  private final long recoveryStartedAt;
+  private boolean recoveredFromSnapshot;
+  private int replayedEvents;
+  private boolean recovered;
+
+  @Inject
+  public IncomeTaxEntity(RecoveryMetrics recoveryMetrics) {
+    this.recoveryMetrics = recoveryMetrics;
+    this.recoveryStartedAt = System.nanoTime();
+  }
+
+  IncomeTaxEntity() {
+    this(new RecoveryMetrics());
+  }
+
   /**
    * An entity can define different behaviours for different states, but it will
    * always start with an initial behaviour. This entity only has one behaviour.
    */
   @Override
   public Behavior initialBehavior(Optional<IncomeTaxState> snapshotState) {
+    recoveredFromSnapshot = snapshotState.isPresent();
 
     /*
      * Behaviour is defined using a behaviour builder. The behaviour builder
@@ -69,16 +91,14 @@ public class IncomeTaxEntity extends PersistentEntity<IncomeTaxCommand, IncomeTa
       // In response to this command, we want to first persist it as a
       // Registered event
       log.debug("processing command {} for #{}", cmd.getClass().getSimpleName(), cmd.getContributorId());
-      if (state().isRegistered) {
-        ctx.commandFailed(new IncomeTaxException(Messages.E_ALREADY_REGISTERED.get(state().contributorId)));
+      Optional<IncomeTaxException> error = registrationError();
+      if (error.isPresent()) {
+        ctx.commandFailed(error.get());
         return ctx.done();
       }
       final Income yearlyIncome = IncomeUtils.scaleToFullYear(cmd.previousYearlyIncome);
       return ctx.thenPersistAll(
-          () -> ctx.reply(
-              contributionsFrom(
-                  state().contributorId, state().contributionYear, state().currentIncomes, state().contributions.contributions
-              )),
+          () -> ctx.reply(contributionsFromState(state())),
           new IncomeTaxEvent.Registered(entityId(), cmd.registrationDate, cmd.previousYearlyIncome),
           new IncomeTaxEvent.IncomeApplied(
               entityId(), yearlyIncome, now(), cmd.registrationDate.getYear(), cmd.contributions));
@@ -86,13 +106,9 @@ public class IncomeTaxEntity extends PersistentEntity<IncomeTaxCommand, IncomeTa
 
     b.setCommandHandler(IncomeTaxCommand.ApplyIncome.class, (cmd, ctx) -> {
       log.debug("processing command {} for #{}", cmd.getClass().getSimpleName(), cmd.getContributorId());
-      if (!state().isRegistered) {
-        ctx.commandFailed(new IncomeTaxException(Messages.E_NOT_REGISTERED_YET.get(cmd.contributorId)));
-        return ctx.done();
-      }
-      if (cmd.income.start.getYear() != state().contributionYear) {
-        ctx.commandFailed(new IncomeTaxException(
-            Messages.E_NOT_CURRENT_CONTRIBUTION_YEAR.get(cmd.income.start, cmd.income.end, state().contributionYear)));
+      Optional<IncomeTaxException> error = incomeError(cmd.contributorId, cmd.income);
+      if (error.isPresent()) {
+        ctx.commandFailed(error.get());
         return ctx.done();
       }
       if (cmd.dryRun) {
@@ -109,6 +125,39 @@ public class IncomeTaxEntity extends PersistentEntity<IncomeTaxCommand, IncomeTa
           // Then once the event is successfully persisted, we respond with calculated contributions.
           evt -> ctx.reply(contributionsFromState(state())));
     });
+    b.setCommandHandler(IncomeTaxCommand.CloseYear.class, (cmd, ctx) -> {
+      log.debug("processing command {} for #{}", cmd.getClass().getSimpleName(), cmd.getContributorId());
+      Optional<IncomeTaxException> error = closingError(cmd.contributorId, cmd.year);
+      if (error.isPresent()) {
+        ctx.commandFailed(error.get());
+        return ctx.done();
+      }
+      return ctx.thenPersist(
+          new IncomeTaxEvent.YearClosed(entityId(), cmd.year, closedYearIncome(state()), now()),
+          evt -> ctx.reply(Done.getInstance()));
+    });
+
+    /*
+     * Read-only command handlers validating a command before its contributions are computed.
+     */
+    b.setReadOnlyCommandHandler(IncomeTaxCommand.ValidateRegistration.class, (cmd, ctx) -> {
+      Optional<IncomeTaxException> error = registrationError();
+      if (error.isPresent()) {
+        ctx.commandFailed(error.get());
+      } else {
+        ctx.reply(Done.getInstance());
+      }
+    });
+
+    b.setReadOnlyCommandHandler(IncomeTaxCommand.ValidateIncome.class, (cmd, ctx) -> {
+      Optional<IncomeTaxException> error = incomeError(cmd.contributorId, cmd.income);
+      if (error.isPresent()) {
+        ctx.commandFailed(error.get());
+      } else {
+        ctx.reply(Done.getInstance());
+      }
+    });
+
     /*
      * Event handler for the Registered event.
      */
@@ -116,6 +165,7 @@ public class IncomeTaxEntity extends PersistentEntity<IncomeTaxCommand, IncomeTa
         // update the contributor id and the registration date
         evt -> {
           log.debug("persisted event {} for #{}", evt.getClass().getSimpleName(), evt.contributorId);
+          countReplayed();
           return IncomeTaxState.of(evt.contributorId, true, evt.registrationDate, evt.previousYearlyIncome);
         });
 
@@ -125,73 +175,96 @@ public class IncomeTaxEntity extends PersistentEntity<IncomeTaxCommand, IncomeTa
     b.setEventHandler(IncomeTaxEvent.IncomeApplied.class,
         evt -> {
           log.debug("persisted event {} for #{}", evt.getClass().getSimpleName(), evt.contributorId);
+          countReplayed();
           return state().modifier()
               .withNewIncome(evt.income)
               .withNewContributions(evt.contributions)
               .modify();
         });
 
+    /*
+     * Event handler for the YearClosed event: the closed year only remains as its yearly income
+     */
+    b.setEventHandler(IncomeTaxEvent.YearClosed.class,
+        evt -> {
+          log.debug("persisted event {} for #{}", evt.getClass().getSimpleName(), evt.contributorId);
+          countReplayed();
+          return state().modifier()
+              .withClosedYear(evt.year, evt.yearlyIncome)
+              .modify();
+        });
+
     /*
      * We've defined all our behaviour, so build and return it.
      */
     return b.build();
   }
 
+  @Override
+  public Behavior recoveryCompleted() {
+    recovered = true;
+    recoveryMetrics.record(entityId(), recoveredFromSnapshot, System.nanoTime() - recoveryStartedAt, replayedEvents);
+    return behavior();
+  }
+
+  private void countReplayed() {
+    if (!recovered) {
+      replayedEvents++;
+    }
+  }
+
+  private Optional<IncomeTaxException> registrationError() {
+    if (state().isRegistered) {
+      return Optional.of(new IncomeTaxException(Messages.E_ALREADY_REGISTERED.get(state().contributorId)));
+    }
+    return Optional.empty();
+  }
+
+  private Optional<IncomeTaxException> incomeError(String contributorId, Income income) {
+    if (!state().isRegistered) {
+      return Optional.of(new IncomeTaxException(Messages.E_NOT_REGISTERED_YET.get(contributorId)));
+    }
+    if (income.start.getYear() != state().contributionYear) {
+      return Optional.of(new IncomeTaxException(
+          Messages.E_NOT_CURRENT_CONTRIBUTION_YEAR.get(income.start, income.end, state().contributionYear)));
+    }
+    return Optional.empty();
+  }
+
+  private Optional<IncomeTaxException> closingError(String contributorId, int year) {
+    if (!state().isRegistered) {
+      return Optional.of(new IncomeTaxException(Messages.E_NOT_REGISTERED_YET.get(contributorId)));
+    }
+    if (year != state().contributionYear) {
+      return Optional.of(new IncomeTaxException(Messages.E_NOT_CLOSABLE_YEAR.get(year, state().contributionYear)));
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * The income of the contribution year: real if every month was declared, estimated otherwise.
+   */
+  private static Income closedYearIncome(IncomeTaxState state) {
+    boolean real = state.currentIncomes.size() == Month.values().length
+        && state.currentIncomes.values().stream().allMatch(income -> income.incomeType == IncomeType.real);
+    return Income.ofYear(state.incomeTotals.income, state.contributionYear, real ? IncomeType.real : IncomeType.estimated);
+  }
+
   private OffsetDateTime now() {
     return OffsetDateTime.now(ZoneOffset.UTC);
   }
 
   // FIXME: should be done in the service layer
   private Contributions contributionsFromState(IncomeTaxState state) {
-    return contributionsFrom(state.contributorId, state.contributionYear, state.currentIncomes, state.contributions.contributions);
-  }
-
-  private Contributions contributionsFrom(
-      String contributorId, int year, PMap<Month, Income> currentIncomes, PMap<Month, PMap<String, Contribution>> yearlyContributions) {
-
-    Map<Month, List<Contribution>> contributions = new HashMap<>();
-    for (Map.Entry<Month, PMap<String, Contribution>> entry : yearlyContributions.entrySet()) {
-      List<Contribution> monthlyContributions = new ArrayList<>();
-      for (Map.Entry<String, Contribution> entry2 : entry.getValue().entrySet()) {
-        Contribution monthlyContributionInternal = entry2.getValue();
-        monthlyContributions.add(
-            new Contribution(
-                monthlyContributionInternal.type,
-                monthlyContributionInternal.income,
-                monthlyContributionInternal.baseIncome,
-                monthlyContributionInternal.rate,
-                monthlyContributionInternal.contribution)
-        );
-      }
-      contributions.put(entry.getKey(), monthlyContributions);
+    IncomeTaxState.IncomeTotals incomeTotals = state.incomeTotals;
+    if (incomeTotals.start == null) {
+      throw new IllegalArgumentException(Messages.E_OOPS_ERROR.get());
     }
-    // sort by month
-    Map<Month, List<Contribution>> result = contributions.entrySet().stream()
-        .sorted(Map.Entry.comparingByKey())
-        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
-            (oldValue, newValue) -> oldValue, LinkedHashMap::new));
-
-    // sum all contributions by type
-    Map<String, BigDecimal> total = result.values().stream()
-        .flatMap(Collection::stream)
-        .collect(Collectors.groupingBy(
-            Contribution::getType,
-            LinkedHashMap::new,
-            Collectors.reducing(BigDecimal.ZERO, Contribution::getContribution, BigDecimal::add)));
-
-    long totalIncome =
-        currentIncomes.values().stream()
-            .map(income -> income.income)
-            .reduce(0L, Long::sum);
-
-    Month startMonth = currentIncomes.keySet().stream().min(Comparator.naturalOrder())
-        .orElseThrow(() -> new IllegalArgumentException(Messages.E_OOPS_ERROR.get()));
-    Month endMonth = currentIncomes.keySet().stream().max(Comparator.naturalOrder())
-        .orElseThrow(() -> new IllegalArgumentException(Messages.E_OOPS_ERROR.get()));
-    LocalDate start = LocalDate.of(year, startMonth, 1);
-    LocalDate end = LocalDate.of(year, endMonth, 1).with(TemporalAdjusters.lastDayOfMonth());
-
-    return new Contributions(contributorId, start, end, BigDecimal.valueOf(totalIncome), total, result);
+    LocalDate start = LocalDate.of(state.contributionYear, incomeTotals.start, 1);
+    LocalDate end = LocalDate.of(state.contributionYear, incomeTotals.end, 1).with(TemporalAdjusters.lastDayOfMonth());
+
+    return new Contributions(state.contributorId, start, end, BigDecimal.valueOf(incomeTotals.income),
+        state.contributions.totals(), state.contributions.byMonth());
   }
 
 }
@@ -75,4 +75,25 @@ public interface IncomeTaxEvent extends Jsonable, AggregateEvent<IncomeTaxEvent>
     }
   }
 
+  /**
+   * An event that represents the closing of a contribution year, archived as its yearly income.
+   */
+  @SuppressWarnings("serial")
+  @Value
+  @JsonDeserialize
+  final class YearClosed implements IncomeTaxEvent {
+    public final String contributorId;
+    public final int year;
+    public final Income yearlyIncome;
+    public final OffsetDateTime closedAt;
+
+    @JsonCreator
+    public YearClosed(String contributorId, int year, Income yearlyIncome, OffsetDateTime closedAt) {
+      this.contributorId = Preconditions.checkNotNull(contributorId, "contributorId");
+      this.year = year;
+      this.yearlyIncome = Preconditions.checkNotNull(yearlyIncome, "yearlyIncome");
+      this.closedAt = Preconditions.checkNotNull(closedAt, "closedAt");
+    }
+  }
+
 }
@@ -0,0 +1,387 @@
+package income.tax.impl.domain;
+
+import akka.serialization.SerializerWithStringManifest;
+import income.tax.api.Income;
+import income.tax.api.IncomeType;
+import income.tax.contribution.api.Contribution;
+import org.pcollections.HashTreePMap;
+import org.pcollections.IntTreePMap;
+import org.pcollections.PMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.Month;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary serializer of the {@link IncomeTaxEvent} events and of the {@link IncomeTaxState} snapshots.
+ * <p>
+ * Every payload starts with a format version. Integers are variable length, amounts are scaled longs, contribution
+ * and income types are indexes in fixed tables (a type missing from the table is written as a string), and the
+ * income shared by the contributions of a month is written once.
+ * <p>
+ * Events and snapshots persisted before this serializer was bound are JSON: Akka reads them back with the serializer
+ * whose identifier was stored along with them (the Lagom JSON serializer), so existing journals keep working.
+ */
+public class IncomeTaxSerializer extends SerializerWithStringManifest {
+
+  static final int IDENTIFIER = 1_600_001;
+
+  private static final int VERSION = 1;
+
+  private static final String REGISTERED_MANIFEST = "R";
+  private static final String INCOME_APPLIED_MANIFEST = "A";
+  private static final String YEAR_CLOSED_MANIFEST = "C";
+  private static final String STATE_MANIFEST = "S";
+
+  // format version 1: append only, an index is persisted
+  private static final List<String> CONTRIBUTION_TYPES = Arrays.asList(
+      "MLD1T2", "MLD1T1", "MAL1", "MAL2", "RVB T1", "RVB T2", "RVB",
+      "RCI T1", "RCI T2", "RCI", "RID", "AF", "CSG/CRDS");
+  private static final List<IncomeType> INCOME_TYPES = Arrays.asList(
+      IncomeType.real, IncomeType.estimated, IncomeType.automatic, IncomeType.system);
+
+  private static final int OTHER_TYPE = 0xFF;
+  private static final int BIG_DECIMAL = 0xFF;
+  private static final int NULL_DECIMAL = 0xFE;
+  private static final int SCALE_BIAS = 64;
+
+  // flags of a contribution
+  private static final int OTHER_INCOME = 1;
+  private static final int OTHER_KEY = 2;
+
+  @Override
+  public int identifier() {
+    return IDENTIFIER;
+  }
+
+  @Override
+  public String manifest(Object o) {
+    if (o instanceof IncomeTaxEvent.Registered) {
+      return REGISTERED_MANIFEST;
+    } else if (o instanceof IncomeTaxEvent.IncomeApplied) {
+      return INCOME_APPLIED_MANIFEST;
+    } else if (o instanceof IncomeTaxEvent.YearClosed) {
+      return YEAR_CLOSED_MANIFEST;
+    } else if (o instanceof IncomeTaxState) {
+      return STATE_MANIFEST;
+    }
+    throw new IllegalArgumentException("Cannot serialize " + o.getClass().getName());
+  }
+
+  @Override
+  public byte[] toBinary(Object o) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      if (o instanceof IncomeTaxEvent.Registered) {
+        writeRegistered(out, (IncomeTaxEvent.Registered) o);
+      } else if (o instanceof IncomeTaxEvent.IncomeApplied) {
+        writeIncomeApplied(out, (IncomeTaxEvent.IncomeApplied) o);
+      } else if (o instanceof IncomeTaxEvent.YearClosed) {
+        writeYearClosed(out, (IncomeTaxEvent.YearClosed) o);
+      } else if (o instanceof IncomeTaxState) {
+        writeState(out, (IncomeTaxState) o);
+      } else {
+        throw new IllegalArgumentException("Cannot serialize " + o.getClass().getName());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public Object fromBinary(byte[] bytes, String manifest) throws NotSerializableException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      int version = in.readUnsignedByte();
+      if (version != VERSION) {
+        throw new NotSerializableException("Unknown format version " + version + " of " + manifest);
+      }
+      switch (manifest) {
+        case REGISTERED_MANIFEST:
+          return readRegistered(in);
+        case INCOME_APPLIED_MANIFEST:
+          return readIncomeApplied(in);
+        case YEAR_CLOSED_MANIFEST:
+          return readYearClosed(in);
+        case STATE_MANIFEST:
+          return readState(in);
+        default:
+          throw new NotSerializableException("Unknown manifest " + manifest);
+      }
+    } catch (IOException | RuntimeException e) {
+      if (e instanceof NotSerializableException) {
+        throw (NotSerializableException) e;
+      }
+      NotSerializableException exception = new NotSerializableException("Cannot deserialize " + manifest);
+      exception.initCause(e);
+      throw exception;
+    }
+  }
+
+  private static void writeRegistered(DataOutputStream out, IncomeTaxEvent.Registered event) throws IOException {
+    out.writeUTF(event.contributorId);
+    writeDateTime(out, event.registrationDate);
+    writeIncome(out, event.previousYearlyIncome);
+  }
+
+  private static IncomeTaxEvent.Registered readRegistered(DataInputStream in) throws IOException {
+    return new IncomeTaxEvent.Registered(in.readUTF(), readDateTime(in), readIncome(in));
+  }
+
+  private static void writeIncomeApplied(DataOutputStream out, IncomeTaxEvent.IncomeApplied event) throws IOException {
+    out.writeUTF(event.contributorId);
+    writeIncome(out, event.income);
+    writeDateTime(out, event.createdAt);
+    writeVarLong(out, zigZag(event.year));
+    writeContributions(out, event.contributions);
+  }
+
+  private static IncomeTaxEvent.IncomeApplied readIncomeApplied(DataInputStream in) throws IOException {
+    String contributorId = in.readUTF();
+    Income income = readIncome(in);
+    OffsetDateTime createdAt = readDateTime(in);
+    int year = (int) unZigZag(readVarLong(in));
+    return new IncomeTaxEvent.IncomeApplied(contributorId, income, createdAt, year, readContributions(in));
+  }
+
+  private static void writeYearClosed(DataOutputStream out, IncomeTaxEvent.YearClosed event) throws IOException {
+    out.writeUTF(event.contributorId);
+    writeVarLong(out, zigZag(event.year));
+    writeIncome(out, event.yearlyIncome);
+    writeDateTime(out, event.closedAt);
+  }
+
+  private static IncomeTaxEvent.YearClosed readYearClosed(DataInputStream in) throws IOException {
+    String contributorId = in.readUTF();
+    int year = (int) unZigZag(readVarLong(in));
+    return new IncomeTaxEvent.YearClosed(contributorId, year, readIncome(in), readDateTime(in));
+  }
+
+  private static void writeState(DataOutputStream out, IncomeTaxState state) throws IOException {
+    out.writeUTF(state.contributorId);
+    out.writeBoolean(state.isRegistered);
+    writeDateTime(out, state.registeredDate);
+    writeVarLong(out, state.previousYearlyIncomes.size());
+    for (Map.Entry<Integer, Income> entry : state.previousYearlyIncomes.entrySet()) {
+      writeVarLong(out, zigZag(entry.getKey()));
+      writeIncome(out, entry.getValue());
+    }
+    writeVarLong(out, zigZag(state.contributionYear));
+    writeVarLong(out, state.currentIncomes.size());
+    for (Map.Entry<Month, Income> entry : state.currentIncomes.entrySet()) {
+      out.writeByte(entry.getKey().getValue());
+      writeIncome(out, entry.getValue());
+    }
+    writeContributions(out, state.contributions.getContributions());
+  }
+
+  private static IncomeTaxState readState(DataInputStream in) throws IOException {
+    String contributorId = in.readUTF();
+    boolean isRegistered = in.readBoolean();
+    OffsetDateTime registeredDate = readDateTime(in);
+    int previousYearCount = readCount(in);
+    Map<Integer, Income> previousYearlyIncomes = new HashMap<>(previousYearCount * 2);
+    for (int i = 0; i < previousYearCount; i++) {
+      previousYearlyIncomes.put((int) unZigZag(readVarLong(in)), readIncome(in));
+    }
+    int contributionYear = (int) unZigZag(readVarLong(in));
+    int monthCount = readCount(in);
+    Map<Month, Income> currentIncomes = new EnumMap<>(Month.class);
+    for (int i = 0; i < monthCount; i++) {
+      currentIncomes.put(Month.of(in.readUnsignedByte()), readIncome(in));
+    }
+    ContributionState contributions = new ContributionState(readContributions(in));
+    return new IncomeTaxState(contributorId, isRegistered, registeredDate,
+        IntTreePMap.from(previousYearlyIncomes), contributionYear, HashTreePMap.from(currentIncomes), contributions);
+  }
+
+  private static void writeContributions(DataOutputStream out, PMap<Month, PMap<String, Contribution>> contributions)
+      throws IOException {
+    writeVarLong(out, contributions.size());
+    for (Map.Entry<Month, PMap<String, Contribution>> month : contributions.entrySet()) {
+      out.writeByte(month.getKey().getValue());
+      PMap<String, Contribution> monthContributions = month.getValue();
+      writeVarLong(out, monthContributions.size());
+      if (monthContributions.isEmpty()) {
+        continue;
+      }
+      // the income of the month, shared by its contributions
+      BigDecimal monthIncome = monthContributions.values().iterator().next().income;
+      writeDecimal(out, monthIncome);
+      for (Map.Entry<String, Contribution> entry : monthContributions.entrySet()) {
+        Contribution contribution = entry.getValue();
+        boolean otherIncome = !sameValue(monthIncome, contribution.income);
+        boolean otherKey = !entry.getKey().equals(contribution.type);
+        out.writeByte((otherIncome ? OTHER_INCOME : 0) | (otherKey ? OTHER_KEY : 0));
+        writeContributionType(out, contribution.type);
+        if (otherKey) {
+          writeContributionType(out, entry.getKey());
+        }
+        if (otherIncome) {
+          writeDecimal(out, contribution.income);
+        }
+        writeDecimal(out, contribution.baseIncome);
+        writeDecimal(out, contribution.rate);
+        writeDecimal(out, contribution.contribution);
+      }
+    }
+  }
+
+  private static PMap<Month, PMap<String, Contribution>> readContributions(DataInputStream in) throws IOException {
+    int monthCount = readCount(in);
+    Map<Month, PMap<String, Contribution>> contributions = new EnumMap<>(Month.class);
+    for (int i = 0; i < monthCount; i++) {
+      Month month = Month.of(in.readUnsignedByte());
+      int count = readCount(in);
+      Map<String, Contribution> monthContributions = new HashMap<>(count * 2);
+      BigDecimal monthIncome = count > 0 ? readDecimal(in) : null;
+      for (int j = 0; j < count; j++) {
+        int flags = in.readUnsignedByte();
+        String type = readContributionType(in);
+        String key = (flags & OTHER_KEY) != 0 ? readContributionType(in) : type;
+        BigDecimal income = (flags & OTHER_INCOME) != 0 ? readDecimal(in) : monthIncome;
+        monthContributions.put(key,
+            new Contribution(type, income, readDecimal(in), readDecimal(in), readDecimal(in)));
+      }
+      contributions.put(month, HashTreePMap.from(monthContributions));
+    }
+    return HashTreePMap.from(contributions);
+  }
+
+  private static void writeIncome(DataOutputStream out, Income income) throws IOException {
+    writeVarLong(out, income.income);
+    int incomeType = INCOME_TYPES.indexOf(income.incomeType);
+    if (incomeType < 0) {
+      throw new IllegalArgumentException("Unknown income type " + income.incomeType);
+    }
+    out.writeByte(incomeType);
+    writeDateTime(out, income.start);
+    writeDateTime(out, income.end);
+  }
+
+  private static Income readIncome(DataInputStream in) throws IOException {
+    long income = readVarLong(in);
+    IncomeType incomeType = INCOME_TYPES.get(in.readUnsignedByte());
+    return new Income(income, incomeType, readDateTime(in), readDateTime(in));
+  }
+
+  private static void writeContributionType(DataOutputStream out, String type) throws IOException {
+    int index = CONTRIBUTION_TYPES.indexOf(type);
+    if (index >= 0) {
+      out.writeByte(index);
+    } else {
+      out.writeByte(OTHER_TYPE);
+      out.writeUTF(type);
+    }
+  }
+
+  private static String readContributionType(DataInputStream in) throws IOException {
+    int index = in.readUnsignedByte();
+    return index == OTHER_TYPE ? in.readUTF() : CONTRIBUTION_TYPES.get(index);
+  }
+
+  private static void writeDateTime(DataOutputStream out, OffsetDateTime dateTime) throws IOException {
+    writeVarLong(out, zigZag(dateTime.toEpochSecond()));
+    writeVarLong(out, dateTime.getNano());
+    writeVarLong(out, zigZag(dateTime.getOffset().getTotalSeconds()));
+  }
+
+  private static OffsetDateTime readDateTime(DataInputStream in) throws IOException {
+    long epochSecond = unZigZag(readVarLong(in));
+    long nano = readVarLong(in);
+    ZoneOffset offset = ZoneOffset.ofTotalSeconds((int) unZigZag(readVarLong(in)));
+    return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), offset);
+  }
+
+  /**
+   * Writes a decimal as its biased scale (one byte) and its unscaled value, or in full when it does not fit.
+   */
+  private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL_DECIMAL);
+      return;
+    }
+    BigInteger unscaled = value.unscaledValue();
+    int scale = value.scale();
+    if (unscaled.bitLength() < Long.SIZE && scale >= -SCALE_BIAS && scale < NULL_DECIMAL - SCALE_BIAS) {
+      out.writeByte(scale + SCALE_BIAS);
+      writeVarLong(out, zigZag(unscaled.longValue()));
+    } else {
+      out.writeByte(BIG_DECIMAL);
+      writeVarLong(out, zigZag(scale));
+      byte[] bytes = unscaled.toByteArray();
+      writeVarLong(out, bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+    int header = in.readUnsignedByte();
+    if (header == NULL_DECIMAL) {
+      return null;
+    } else if (header != BIG_DECIMAL) {
+      return BigDecimal.valueOf(unZigZag(readVarLong(in)), header - SCALE_BIAS);
+    }
+    int scale = (int) unZigZag(readVarLong(in));
+    byte[] bytes = new byte[readCount(in)];
+    in.readFully(bytes);
+    return new BigDecimal(new BigInteger(bytes), scale);
+  }
+
+  private static boolean sameValue(BigDecimal a, BigDecimal b) {
+    // equals: the scale is part of the persisted value
+    return a == null ? b == null : a.equals(b);
+  }
+
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable length integer");
+  }
+
+  private static int readCount(DataInputStream in) throws IOException {
+    long count = readVarLong(in);
+    if (count < 0 || count > Integer.MAX_VALUE) {
+      throw new IOException("Malformed count " + count);
+    }
+    return (int) count;
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
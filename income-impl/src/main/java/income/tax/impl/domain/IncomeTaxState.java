@@ -1,6 +1,7 @@
 package income.tax.impl.domain;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.google.common.base.Preconditions;
 import com.lightbend.lagom.serialization.CompressedJsonable;
@@ -16,6 +17,7 @@ import org.pcollections.PMap;
 import java.time.Month;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -49,12 +51,26 @@ public final class IncomeTaxState implements CompressedJsonable {
   public final @NonNull
   ContributionState contributions;
 
+  // derived from the current incomes
+  @JsonIgnore
+  public final @NonNull
+  IncomeTotals incomeTotals;
+
   @JsonCreator
   public IncomeTaxState(
       @NonNull String contributorId, boolean isRegistered, @NonNull OffsetDateTime registeredDate,
       @NonNull PMap<Integer, Income> previousYearlyIncomes,
       int contributionYear, PMap<Month, Income> currentIncomes,
       @NonNull ContributionState contributions) {
+    this(contributorId, isRegistered, registeredDate, previousYearlyIncomes, contributionYear, currentIncomes,
+        contributions, IncomeTotals.of(Preconditions.checkNotNull(currentIncomes, "currentIncomes")));
+  }
+
+  private IncomeTaxState(
+      String contributorId, boolean isRegistered, OffsetDateTime registeredDate,
+      PMap<Integer, Income> previousYearlyIncomes,
+      int contributionYear, PMap<Month, Income> currentIncomes,
+      ContributionState contributions, IncomeTotals incomeTotals) {
     this.contributorId = Preconditions.checkNotNull(contributorId, "message");
     this.isRegistered = isRegistered;
     this.registeredDate = Preconditions.checkNotNull(registeredDate, "registeredDate");
@@ -62,6 +78,7 @@ public final class IncomeTaxState implements CompressedJsonable {
     this.contributionYear = contributionYear;
     this.currentIncomes = Preconditions.checkNotNull(currentIncomes, "currentIncomes");
     this.contributions = Preconditions.checkNotNull(contributions, "contributions");
+    this.incomeTotals = incomeTotals;
   }
 
   static IncomeTaxState of(String contributorId, boolean isRegistered, OffsetDateTime registeredDate, Income previousYearlyIncome) {
@@ -87,6 +104,7 @@ public final class IncomeTaxState implements CompressedJsonable {
     private PMap<Month, Income> currentIncomes;
     private ContributionState contributionState;
     private int contributionYear;
+    private IncomeTotals incomeTotals;
 
     public Modifier(IncomeTaxState currentState) {
       this.currentState = currentState;
@@ -94,6 +112,7 @@ public final class IncomeTaxState implements CompressedJsonable {
       this.currentIncomes = currentState.currentIncomes;
       this.contributionState = currentState.contributions;
       this.contributionYear = currentState.contributionYear;
+      this.incomeTotals = currentState.incomeTotals;
     }
 
     public Modifier withNewPreviousYearlyIncome(Map<Integer, Income> newPreviousYearlyIncome) {
@@ -102,6 +121,7 @@ public final class IncomeTaxState implements CompressedJsonable {
     }
 
     public Modifier withNewCurrentIncomes(Map<Month, Income> newCurrentIncomes) {
+      this.incomeTotals = this.incomeTotals.plus(this.currentIncomes, newCurrentIncomes);
       this.currentIncomes = this.currentIncomes.plusAll(newCurrentIncomes);
       return this;
     }
@@ -109,8 +129,7 @@ public final class IncomeTaxState implements CompressedJsonable {
     public Modifier withNewIncome(Income newIncome) {
       // spread income over months
       Map<Month, Income> spreadIncome = IncomeUtils.spreadOutOverMonths(newIncome);
-      this.currentIncomes = this.currentIncomes.plusAll(spreadIncome);
-      return this;
+      return withNewCurrentIncomes(spreadIncome);
     }
 
     public Modifier withNewContributions(ContributionState newContributionState) {
@@ -127,13 +146,60 @@ public final class IncomeTaxState implements CompressedJsonable {
       return new IncomeTaxState(
           currentState.contributorId, currentState.isRegistered, currentState.registeredDate,
           this.previousYearlyIncomes,
-          this.contributionYear, this.currentIncomes, this.contributionState);
+          this.contributionYear, this.currentIncomes, this.contributionState, this.incomeTotals);
     }
 
     public Modifier withNewContributionYear(int year) {
       this.contributionYear = year;
       return this;
     }
+
+    /**
+     * Archives the closed year as a yearly income and starts the next one without incomes nor contributions.
+     */
+    public Modifier withClosedYear(int year, Income yearlyIncome) {
+      this.previousYearlyIncomes = this.previousYearlyIncomes.plus(year, yearlyIncome);
+      this.contributionYear = year + 1;
+      this.currentIncomes = HashTreePMap.empty();
+      this.contributionState = ContributionState.empty();
+      this.incomeTotals = IncomeTotals.NONE;
+      return this;
+    }
+  }
+
+  /**
+   * The total of the current incomes and the months they cover, maintained as incomes are applied.
+   */
+  @Value
+  public static class IncomeTotals {
+    static final IncomeTotals NONE = new IncomeTotals(0L, null, null);
+
+    public final long income;
+    // first and last months having an income, null if none
+    public final Month start;
+    public final Month end;
+
+    static IncomeTotals of(Map<Month, Income> incomes) {
+      return NONE.plus(Collections.emptyMap(), incomes);
+    }
+
+    IncomeTotals plus(Map<Month, Income> currentIncomes, Map<Month, Income> newIncomes) {
+      long total = this.income;
+      Month first = this.start;
+      Month last = this.end;
+      for (Map.Entry<Month, Income> entry : newIncomes.entrySet()) {
+        Month month = entry.getKey();
+        Income previous = currentIncomes.get(month);
+        total += entry.getValue().income - (previous == null ? 0L : previous.income);
+        if (first == null || month.compareTo(first) < 0) {
+          first = month;
+        }
+        if (last == null || month.compareTo(last) > 0) {
+          last = month;
+        }
+      }
+      return new IncomeTotals(total, first, last);
+    }
   }
 
 }
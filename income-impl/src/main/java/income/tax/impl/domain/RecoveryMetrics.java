@@ -0,0 +1,234 @@
+package income.tax.impl.domain;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The recoveries of the {@link IncomeTaxEntity} entities: how long an activation takes to rebuild its state (snapshot
+ * read included) and how many events it replays on top of its snapshot.
+ * <p>
+ * The duration and the replayed events of each activation are recorded in histograms, and the slowest activation is
+ * kept with its entity id. Available from {@link #stats()} and as the JMX bean
+ * {@code income.tax:type=Recovery,name=IncomeTaxEntity}.
+ */
+@Slf4j
+@Singleton
+public class RecoveryMetrics {
+
+  // upper bounds of the buckets of the histograms, the last bucket holding the greater values
+  static final long[] RECOVERY_MILLIS_BOUNDS = {1, 5, 10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000};
+  static final long[] REPLAYED_EVENTS_BOUNDS = {0, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 5_000};
+
+  private final LongAdder activations = new LongAdder();
+  private final LongAdder snapshotRecoveries = new LongAdder();
+  private final LongAdder replayedEvents = new LongAdder();
+  private final LongAdder recoveryNanos = new LongAdder();
+  private final Histogram recoveryMillisHistogram = new Histogram(RECOVERY_MILLIS_BOUNDS);
+  private final Histogram replayedEventsHistogram = new Histogram(REPLAYED_EVENTS_BOUNDS);
+  private final AtomicReference<Activation> slowest = new AtomicReference<>(new Activation("", 0L, 0));
+
+  public RecoveryMetrics() {
+    registerMBean();
+  }
+
+  /**
+   * Records the recovery of an entity activation.
+   */
+  public void record(String entityId, boolean fromSnapshot, long durationNanos, int events) {
+    activations.increment();
+    if (fromSnapshot) {
+      snapshotRecoveries.increment();
+    }
+    replayedEvents.add(events);
+    recoveryNanos.add(durationNanos);
+    recoveryMillisHistogram.record(TimeUnit.NANOSECONDS.toMillis(durationNanos));
+    replayedEventsHistogram.record(events);
+    Activation activation = new Activation(entityId, durationNanos, events);
+    slowest.accumulateAndGet(activation, (current, candidate) ->
+        candidate.durationNanos > current.durationNanos ? candidate : current);
+    log.debug("#{} recovered in {} ms, {} events replayed{}", entityId,
+        TimeUnit.NANOSECONDS.toMillis(durationNanos), events, fromSnapshot ? " after its snapshot" : "");
+  }
+
+  public Stats stats() {
+    long count = activations.sum();
+    Activation slowestActivation = slowest.get();
+    return new Stats(
+        count,
+        snapshotRecoveries.sum(),
+        replayedEvents.sum(),
+        replayedEventsHistogram.max(),
+        count == 0 ? 0.0 : recoveryNanos.sum() / 1e6 / count,
+        slowestActivation.durationNanos / 1e6,
+        slowestActivation.entityId,
+        recoveryMillisHistogram.counts(),
+        replayedEventsHistogram.counts());
+  }
+
+  private void registerMBean() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName objectName = new ObjectName("income.tax:type=Recovery,name=IncomeTaxEntity");
+      // a new instance (a restarted application) replaces the previous one
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+      server.registerMBean(new StatsBean(), objectName);
+    } catch (JMException e) {
+      log.warn("Recovery metrics not registered", e);
+    }
+  }
+
+  @Value
+  public static class Stats {
+    public final long activations;
+    // activations started from a snapshot
+    public final long snapshotRecoveries;
+    public final long replayedEvents;
+    public final long maxReplayedEvents;
+    public final double meanRecoveryMillis;
+    public final double maxRecoveryMillis;
+    // entity of the slowest activation
+    public final String slowestEntityId;
+    // activations by bucket of RECOVERY_MILLIS_BOUNDS and REPLAYED_EVENTS_BOUNDS
+    public final long[] recoveryMillisHistogram;
+    public final long[] replayedEventsHistogram;
+  }
+
+  @Value
+  private static class Activation {
+    String entityId;
+    long durationNanos;
+    int events;
+  }
+
+  /**
+   * Counts the recorded values by bucket: a value is counted in the first bucket whose upper bound it does not exceed,
+   * or in the last bucket.
+   */
+  private static class Histogram {
+    private final long[] bounds;
+    private final LongAdder[] counts;
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    Histogram(long[] bounds) {
+      this.bounds = bounds;
+      this.counts = new LongAdder[bounds.length + 1];
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] = new LongAdder();
+      }
+    }
+
+    void record(long value) {
+      int bucket = 0;
+      while (bucket < bounds.length && value > bounds[bucket]) {
+        bucket++;
+      }
+      counts[bucket].increment();
+      max.accumulate(value);
+    }
+
+    long[] counts() {
+      long[] result = new long[counts.length];
+      for (int i = 0; i < counts.length; i++) {
+        result[i] = counts[i].sum();
+      }
+      return result;
+    }
+
+    long max() {
+      return max.get();
+    }
+  }
+
+  public interface StatsMXBean {
+    long getActivations();
+
+    long getSnapshotRecoveries();
+
+    long getReplayedEvents();
+
+    long getMaxReplayedEvents();
+
+    double getMeanRecoveryMillis();
+
+    double getMaxRecoveryMillis();
+
+    String getSlowestEntityId();
+
+    long[] getRecoveryMillisBounds();
+
+    long[] getRecoveryMillisHistogram();
+
+    long[] getReplayedEventsBounds();
+
+    long[] getReplayedEventsHistogram();
+  }
+
+  private class StatsBean implements StatsMXBean {
+    @Override
+    public long getActivations() {
+      return activations.sum();
+    }
+
+    @Override
+    public long getSnapshotRecoveries() {
+      return snapshotRecoveries.sum();
+    }
+
+    @Override
+    public long getReplayedEvents() {
+      return replayedEvents.sum();
+    }
+
+    @Override
+    public long getMaxReplayedEvents() {
+      return replayedEventsHistogram.max();
+    }
+
+    @Override
+    public double getMeanRecoveryMillis() {
+      return stats().meanRecoveryMillis;
+    }
+
+    @Override
+    public double getMaxRecoveryMillis() {
+      return stats().maxRecoveryMillis;
+    }
+
+    @Override
+    public String getSlowestEntityId() {
+      return slowest.get().entityId;
+    }
+
+    @Override
+    public long[] getRecoveryMillisBounds() {
+      return RECOVERY_MILLIS_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getRecoveryMillisHistogram() {
+      return recoveryMillisHistogram.counts();
+    }
+
+    @Override
+    public long[] getReplayedEventsBounds() {
+      return REPLAYED_EVENTS_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getReplayedEventsHistogram() {
+      return replayedEventsHistogram.counts();
+    }
+  }
+}
@@ -11,7 +11,10 @@ public enum Messages {
   E_NOT_REGISTERED_YET,
   E_ALREADY_REGISTERED,
   E_NO_CONTRIBUTIONS,
-  E_CASSANDRA_NO_KEYSPACE;
+  E_CASSANDRA_NO_KEYSPACE,
+  E_NOT_CLOSABLE_YEAR,
+  E_ILLEGAL_PAGING_STATE,
+  E_REGION_INDEX_NOT_READY;
 
   private static final String COMPONENT_CODE = "TAX"; //
 
@@ -0,0 +1,169 @@
+package income.tax.impl.readside;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.cluster.pubsub.DistributedPubSub;
+import akka.cluster.pubsub.DistributedPubSubMediator;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.lightbend.lagom.serialization.Jsonable;
+import com.typesafe.config.Config;
+import income.tax.contribution.api.Contribution;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.pcollections.PMap;
+import org.pcollections.PSequence;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Month;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, read-through cache of the contributions of a contributor year, configured by
+ * {@code income.read-side.cache}.
+ * <p>
+ * The read-side invalidates the contributions it writes. The read-side processor of a tag runs on a single node:
+ * with the {@code broadcast} invalidation, the invalidations are published to every node of the cluster; with the
+ * {@code local} one, the other nodes rely on {@code expire-after-write}.
+ * <p>
+ * The cache holds the loads themselves: a load in progress is shared by the concurrent gets of its contributor year,
+ * and dropped by an invalidation of that contributor year only.
+ */
+@Singleton
+@Slf4j
+public class ContributionCache {
+
+  private static final String TOPIC = "income-contribution-cache";
+
+  private final Cache<Key, CompletableFuture<PMap<Month, PSequence<Contribution>>>> cache;
+  private final Optional<ActorRef> mediator;
+
+  @Inject
+  public ContributionCache(Config config, ActorSystem system) {
+    this(config.getConfig("income.read-side.cache"), broadcastMediator(config, system));
+  }
+
+  ContributionCache(Config cacheConfig, Optional<ActorRef> mediator) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(cacheConfig.getLong("max-size"))
+        .expireAfterWrite(cacheConfig.getDuration("expire-after-write").toMillis(), TimeUnit.MILLISECONDS)
+        .build();
+    this.mediator = mediator;
+  }
+
+  private static Optional<ActorRef> broadcastMediator(Config config, ActorSystem system) {
+    String invalidation = config.getString("income.read-side.cache.invalidation");
+    switch (invalidation) {
+      case "local":
+        return Optional.empty();
+      case "broadcast":
+        return Optional.of(DistributedPubSub.get(system).mediator());
+      default:
+        throw new IllegalArgumentException("Unknown income.read-side.cache.invalidation: " + invalidation);
+    }
+  }
+
+  /**
+   * Subscribes this cache to the invalidations published by the other nodes, with the {@code broadcast} invalidation
+   * (see {@link ContributionCacheSubscriber}).
+   */
+  void subscribe(ActorSystem system) {
+    mediator.ifPresent(value ->
+        system.actorOf(Props.create(Invalidator.class, () -> new Invalidator(value, this)), "contribution-cache"));
+  }
+
+  /**
+   * Returns the cached contributions of a contributor year, loading them if missing.
+   */
+  public CompletionStage<PMap<Month, PSequence<Contribution>>> get(
+      String contributorId, int year, Supplier<CompletionStage<PMap<Month, PSequence<Contribution>>>> loader) {
+    Key key = new Key(contributorId, year);
+    CompletableFuture<PMap<Month, PSequence<Contribution>>> contributions;
+    try {
+      contributions = cache.get(key, () -> loader.get().toCompletableFuture());
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      CompletableFuture<PMap<Month, PSequence<Contribution>>> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e.getCause());
+      return failed;
+    }
+    // a failed load is not kept, unless already replaced
+    contributions.whenComplete((value, error) -> {
+      if (error != null) {
+        cache.asMap().remove(key, contributions);
+      }
+    });
+    return contributions;
+  }
+
+  /**
+   * Invalidates the contributions of a contributor year, on every node with the {@code broadcast} invalidation.
+   */
+  public void invalidate(String contributorId, int year) {
+    invalidateLocally(contributorId, year);
+    mediator.ifPresent(value -> value.tell(
+        new DistributedPubSubMediator.Publish(TOPIC, new Invalidation(contributorId, year)), ActorRef.noSender()));
+  }
+
+  void invalidateLocally(String contributorId, int year) {
+    // a load in progress is dropped as well: its contributions may have been read before the invalidated write
+    cache.invalidate(new Key(contributorId, year));
+  }
+
+  @Value
+  private static class Key {
+    String contributorId;
+    int year;
+  }
+
+  /**
+   * The invalidation published to the other nodes.
+   */
+  @SuppressWarnings("serial")
+  @Value
+  @JsonDeserialize
+  static final class Invalidation implements Jsonable {
+    public final String contributorId;
+    public final int year;
+
+    @JsonCreator
+    public Invalidation(String contributorId, int year) {
+      this.contributorId = Preconditions.checkNotNull(contributorId, "contributorId");
+      this.year = year;
+    }
+  }
+
+  /**
+   * Applies the published invalidations to the cache of its node.
+   */
+  private static class Invalidator extends AbstractActor {
+
+    private final ContributionCache cache;
+
+    Invalidator(ActorRef mediator, ContributionCache cache) {
+      this.cache = cache;
+      mediator.tell(new DistributedPubSubMediator.Subscribe(TOPIC, self()), self());
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder()
+          .match(Invalidation.class, invalidation ->
+              cache.invalidateLocally(invalidation.contributorId, invalidation.year))
+          .match(DistributedPubSubMediator.SubscribeAck.class, ack ->
+              log.info("Subscribed to the invalidations of the contributions"))
+          .build();
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package income.tax.impl.readside;
+
+import akka.actor.ActorSystem;
+
+import javax.inject.Inject;
+
+/**
+ * Subscribes the contribution cache to the invalidations published by the other nodes, once the cache is constructed.
+ */
+public class ContributionCacheSubscriber {
+
+  @Inject
+  public ContributionCacheSubscriber(ContributionCache cache, ActorSystem system) {
+    cache.subscribe(system);
+  }
+}
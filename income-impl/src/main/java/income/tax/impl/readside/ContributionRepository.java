@@ -1,20 +1,33 @@
 package income.tax.impl.readside;
 
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
 import com.lightbend.lagom.javadsl.persistence.ReadSideProcessor;
 import income.tax.api.Contributor;
+import income.tax.api.ContributorPage;
 import income.tax.contribution.api.Contribution;
 import income.tax.impl.domain.IncomeTaxEvent;
 import org.pcollections.PMap;
 import org.pcollections.PSequence;
 
 import java.time.Month;
+import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 
 public interface ContributionRepository {
 
   ReadSideProcessor.ReadSideHandler<IncomeTaxEvent> buildHandler();
 
-  CompletionStage<PSequence<Contributor>> findContributors();
+  /**
+   * Reads a page of contributors, of a region or all of them, starting at the paging state of the previous page
+   * if any.
+   */
+  CompletionStage<ContributorPage> findContributors(Optional<String> region, int pageSize, Optional<String> pagingState);
+
+  /**
+   * Streams the contributors, of a region or all of them, fetching {@code fetchSize} rows at a time.
+   */
+  Source<Contributor, NotUsed> streamContributors(Optional<String> region, int fetchSize);
 
   CompletionStage<PMap<Month, PSequence<Contribution>>> findContributions(String contributorId, int year);
 }
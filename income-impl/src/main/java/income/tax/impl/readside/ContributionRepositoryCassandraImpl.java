@@ -1,14 +1,34 @@
 package income.tax.impl.readside;
 
 import akka.Done;
+import akka.NotUsed;
 import akka.japi.Pair;
+import akka.persistence.query.NoOffset;
+import akka.persistence.query.Sequence;
+import akka.persistence.query.TimeBasedUUID;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
 import com.datastax.driver.core.*;
+import com.datastax.driver.core.exceptions.PagingStateException;
 import com.datastax.driver.core.schemabuilder.CreateType;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.lightbend.lagom.javadsl.persistence.AggregateEventTag;
+import com.lightbend.lagom.javadsl.persistence.Offset;
 import com.lightbend.lagom.javadsl.persistence.ReadSideProcessor;
 import com.lightbend.lagom.javadsl.persistence.cassandra.CassandraReadSide;
 import com.lightbend.lagom.javadsl.persistence.cassandra.CassandraSession;
+import com.lightbend.lagom.spi.persistence.OffsetDao;
+import com.lightbend.lagom.spi.persistence.OffsetStore;
+import com.typesafe.config.Config;
 import income.tax.api.Contributor;
+import income.tax.api.ContributorPage;
+import income.tax.common.MonitoredExecutor;
 import income.tax.contribution.api.Contribution;
+import income.tax.impl.IncomeExecutors;
+import income.tax.impl.IncomeTaxException;
 import income.tax.impl.domain.IncomeTaxEvent;
 import income.tax.impl.message.Messages;
 import org.pcollections.HashTreePMap;
@@ -17,19 +37,28 @@ import org.pcollections.PSequence;
 import org.pcollections.TreePVector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.compat.java8.FutureConverters;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.time.Duration;
 import java.time.Month;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.datastax.driver.core.schemabuilder.SchemaBuilder.*;
 import static com.lightbend.lagom.javadsl.persistence.cassandra.CassandraReadSide.completedStatements;
@@ -39,57 +68,175 @@ public class ContributionRepositoryCassandraImpl implements ContributionReposito
 
   private static final Logger logger = LoggerFactory.getLogger(ContributionRepositoryCassandraImpl.class);
 
+  private static final String OFFSET_ID = "contributionsoffset";
+
+  private static final String SELECT_CONTRIBUTORS = "SELECT id, registration_date FROM contributors";
+
+  // the contributors of a region are spread over buckets, by hash of their id, to bound the partition sizes
+  // (changing the number of buckets requires rebuilding the table)
+  static final int REGION_BUCKETS = 16;
+  private static final String SELECT_CONTRIBUTORS_OF_REGION =
+      "SELECT id, registration_date FROM contributors_by_region WHERE region = ? AND bucket IN ("
+          + IntStream.range(0, REGION_BUCKETS).mapToObj(Integer::toString).collect(Collectors.joining(", ")) + ")";
+
+  // one-off copies of the read-side tables, recorded once complete, and the position of the copies in progress
+  private static final String SELECT_MIGRATION = "SELECT name FROM read_side_migrations WHERE name = ?";
+  private static final String WRITE_MIGRATION = "INSERT INTO read_side_migrations (name) VALUES (?)";
+  private static final String SELECT_MIGRATION_POSITION =
+      "SELECT paging_state FROM read_side_migration_positions WHERE name = ?";
+  private static final String WRITE_MIGRATION_POSITION =
+      "INSERT INTO read_side_migration_positions (name, paging_state) VALUES (?, ?)";
+  // the contributors registered before contributors_by_region existed
+  private static final String REGION_INDEX_MIGRATION = "contributors_by_region";
+  private static final int MIGRATION_FETCH_SIZE = 1000;
+  private static final int MIGRATION_PARALLELISM = 16;
+
   private static final UnaryOperator<String> regionFromContributorId = id -> id.length() > 3 ? id.substring(0, 3) : "???";
   private final CassandraSession session;
   private final CassandraReadSide readSide;
+  private final OffsetStore offsetStore;
+  private final Materializer materializer;
+  private final MonitoredExecutor executor;
+  private final ContributionCache cache;
+  private final int microBatchMaxEvents;
+  private final Duration microBatchMaxWait;
+  private final long writtenMaxSize;
   private final String keyspace = "incometax_income";
   private PreparedStatement writeContributors; // initialized in prepareStatement
+  private PreparedStatement writeContributorsByRegion; // initialized in prepareStatement
   private PreparedStatement writeContributions; // initialized in prepareStatement
   private UserType contributionUdtType;  // initialized in prepareStatement
+  private volatile boolean regionIndexReady; // set once contributors_by_region holds every contributor
 
   @Inject
-  public ContributionRepositoryCassandraImpl(CassandraSession session, CassandraReadSide readSide) {
+  public ContributionRepositoryCassandraImpl(
+      CassandraSession session, CassandraReadSide readSide, OffsetStore offsetStore, Materializer materializer,
+      IncomeExecutors executors, ContributionCache cache, Config config) {
     logger.info("Cassandra Read Side implementation");
     this.session = session;
     this.readSide = readSide;
+    this.offsetStore = offsetStore;
+    this.materializer = materializer;
+    this.executor = executors.readSide();
+    this.cache = cache;
+    this.microBatchMaxEvents = config.getInt("income.read-side.micro-batch.max-events");
+    this.microBatchMaxWait = config.getDuration("income.read-side.micro-batch.max-wait");
+    this.writtenMaxSize = config.getLong("income.read-side.written.max-size");
   }
 
   @Override
   public ReadSideProcessor.ReadSideHandler<IncomeTaxEvent> buildHandler() {
+    if (microBatchMaxEvents > 1) {
+      return new MicroBatchHandler();
+    }
     // use the build-in Cassandra builder
     CassandraReadSide.ReadSideHandlerBuilder<IncomeTaxEvent> builder =
-        readSide.builder("contributionsoffset");
+        readSide.builder(OFFSET_ID);
     builder.setGlobalPrepare(this::ensureTables);
     builder.setPrepare(tag -> prepareStatements());
     builder.setEventHandler(IncomeTaxEvent.Registered.class, this::processRegistered);
-    builder.setEventHandler(IncomeTaxEvent.IncomeApplied.class, this::processIncomeApplied);
+    // the contributions written by this handler, by contributor year: a handler started again starts empty
+    Cache<Pair<String, Integer>, PMap<Month, PMap<String, Contribution>>> written =
+        CacheBuilder.newBuilder().maximumSize(writtenMaxSize).build();
+    builder.setEventHandler(IncomeTaxEvent.IncomeApplied.class, event -> processIncomeApplied(event, written));
     return builder.build();
   }
 
   @Override
-  public CompletionStage<PSequence<Contributor>> findContributors() {
-    return session.selectAll("SELECT * FROM contributors")
-        .thenApply(rows -> {
-              List<Contributor> contributors = rows.stream()
-                  .map(row -> {
-                    String id = row.getString("id");
-                    Date timestamp = row.getTimestamp("registration_date");
-                    OffsetDateTime registrationDate = OffsetDateTime.ofInstant(timestamp.toInstant(), ZoneId.of("UTC"));
-                    return new Contributor(id, registrationDate);
-                  })
-                  .collect(Collectors.toList());
-              return TreePVector.from(contributors);
-            }
-        );
+  public CompletionStage<ContributorPage> findContributors(
+      Optional<String> region, int pageSize, Optional<String> pagingState) {
+    Statement statement = selectContributors(region).setFetchSize(pageSize);
+    try {
+      pagingState.map(PagingState::fromString).ifPresent(statement::setPagingState);
+    } catch (PagingStateException e) {
+      CompletableFuture<ContributorPage> failed = new CompletableFuture<>();
+      failed.completeExceptionally(new IncomeTaxException(Messages.E_ILLEGAL_PAGING_STATE.get(pagingState.get())));
+      return failed;
+    }
+    // a single page is fetched: only the rows available without fetching are read
+    return checkRegionIndex(region)
+        .thenCompose(done -> session.underlying())
+        .thenCompose(underlyingSession -> toCompletionStage(underlyingSession.executeAsync(statement)))
+        .thenCompose(resultSet -> executor.supplyAsync(() -> {
+          int available = resultSet.getAvailableWithoutFetching();
+          List<Contributor> contributors = new ArrayList<>(available);
+          for (int i = 0; i < available; i++) {
+            contributors.add(toContributor(resultSet.one()));
+          }
+          Optional<String> next = Optional.ofNullable(resultSet.getExecutionInfo().getPagingState())
+              .map(PagingState::toString);
+          return new ContributorPage(TreePVector.from(contributors), next);
+        }));
+  }
+
+  @Override
+  public Source<Contributor, NotUsed> streamContributors(Optional<String> region, int fetchSize) {
+    // the session fetches the next page when the stream demands it
+    return Source.fromCompletionStage(checkRegionIndex(region))
+        .flatMapConcat(done -> session.select(selectContributors(region).setFetchSize(fetchSize)))
+        .map(this::toContributor);
+  }
+
+  /**
+   * Fails the queries of a region until the contributors registered before the region index existed are copied into
+   * it (see {@link RegionIndexMigration}): until then, the index would silently miss them.
+   */
+  private CompletionStage<Done> checkRegionIndex(Optional<String> region) {
+    if (!region.isPresent() || regionIndexReady) {
+      return CompletableFuture.completedFuture(Done.getInstance());
+    }
+    return session.selectOne(SELECT_MIGRATION, REGION_INDEX_MIGRATION).thenApply(migration -> {
+      if (!migration.isPresent()) {
+        throw new IncomeTaxException(Messages.E_REGION_INDEX_NOT_READY.get(region.get()));
+      }
+      regionIndexReady = true;
+      return Done.getInstance();
+    });
+  }
+
+  /**
+   * Selects all the contributors, or only the partitions of a region.
+   */
+  private static Statement selectContributors(Optional<String> region) {
+    return region
+        .<Statement>map(value -> new SimpleStatement(SELECT_CONTRIBUTORS_OF_REGION, value))
+        .orElseGet(() -> new SimpleStatement(SELECT_CONTRIBUTORS));
+  }
+
+  static int regionBucket(String contributorId) {
+    return Math.floorMod(contributorId.hashCode(), REGION_BUCKETS);
+  }
+
+  private Contributor toContributor(Row row) {
+    String id = row.getString("id");
+    Date timestamp = row.getTimestamp("registration_date");
+    OffsetDateTime registrationDate = OffsetDateTime.ofInstant(timestamp.toInstant(), ZoneId.of("UTC"));
+    return new Contributor(id, registrationDate);
+  }
+
+  private static CompletionStage<ResultSet> toCompletionStage(ResultSetFuture future) {
+    CompletableFuture<ResultSet> result = new CompletableFuture<>();
+    future.addListener(() -> {
+      try {
+        result.complete(future.getUninterruptibly());
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    }, Runnable::run);
+    return result;
   }
 
   @Override
   public CompletionStage<PMap<Month, PSequence<Contribution>>>
   findContributions(final String contributorId, final int year) {
+    return cache.get(contributorId, year, () -> selectContributions(contributorId, year));
+  }
+
+  private CompletionStage<PMap<Month, PSequence<Contribution>>> selectContributions(String contributorId, int year) {
     return session.selectAll(
         "SELECT * FROM contributions WHERE region = ? and contributor_id = ? and year = ?",
         regionFromContributorId.apply(contributorId), contributorId, year)
-        .thenApply(rows -> rows.stream().map(row -> {
+        .thenCompose(rows -> executor.supplyAsync(() -> rows.stream().map(row -> {
            int month = row.getInt("month");
           List<UDTValue> contributionValues = row.getList("contributions", UDTValue.class);
           final List<Contribution> contributions = contributionValues.stream()
@@ -102,49 +249,110 @@ public class ContributionRepositoryCassandraImpl implements ContributionReposito
                       udtValue.getDecimal("contribution"))
               ).collect(Collectors.toList());
           return new Pair<>(Month.of(month), TreePVector.from(contributions));
-        }).collect(Collectors.toMap(Pair::first, Pair::second, (oldValue, newValue) -> newValue)))
+        }).collect(Collectors.toMap(Pair::first, Pair::second, (oldValue, newValue) -> newValue))))
         .thenApply(HashTreePMap::from);
   }
 
   private CompletionStage<List<BoundStatement>> processRegistered(IncomeTaxEvent.Registered event) {
     logger.debug("registering a new contributor: {}", event);
+    return completedStatements(bindWriteContributor(event));
+  }
 
+  private List<BoundStatement> bindWriteContributor(IncomeTaxEvent.Registered event) {
     BoundStatement bindWriteContributor = writeContributors.bind();
     bindWriteContributor.setString("id", event.getContributorId());
     bindWriteContributor.setString("region", regionFromContributorId.apply(event.getContributorId()));
     Date registrationTimestamp = Date.from(event.registrationDate.toInstant());
     bindWriteContributor.setTimestamp("registration_date", registrationTimestamp);
-    return completedStatements(Collections.singletonList(bindWriteContributor));
+    return Arrays.asList(
+        bindWriteContributor, bindWriteContributorByRegion(event.getContributorId(), registrationTimestamp));
   }
 
-  private CompletionStage<List<BoundStatement>> processIncomeApplied(final IncomeTaxEvent.IncomeApplied event) {
+  private BoundStatement bindWriteContributorByRegion(String contributorId, Date registrationTimestamp) {
+    BoundStatement bindWriteContributorByRegion = writeContributorsByRegion.bind();
+    bindWriteContributorByRegion.setString("region", regionFromContributorId.apply(contributorId));
+    bindWriteContributorByRegion.setInt("bucket", regionBucket(contributorId));
+    bindWriteContributorByRegion.setString("id", contributorId);
+    bindWriteContributorByRegion.setTimestamp("registration_date", registrationTimestamp);
+    return bindWriteContributorByRegion;
+  }
+
+  private CompletionStage<List<BoundStatement>> processIncomeApplied(
+      final IncomeTaxEvent.IncomeApplied event,
+      Cache<Pair<String, Integer>, PMap<Month, PMap<String, Contribution>>> written) {
     logger.debug("record income and contributions: {}", event);
-    List<BoundStatement> boundStatements = event.contributions.entrySet().stream()
-        .map(entry -> {
-          final Month month = entry.getKey();
-          PMap<String, Contribution> monthContributions = entry.getValue();
-          BoundStatement bindWrite = writeContributions.bind();
-          bindWrite.setString("contributor_id", event.getContributorId());
-          bindWrite.setString("region", regionFromContributorId.apply(event.getContributorId()));
-          bindWrite.setInt("year", event.year);
-          bindWrite.setInt("month", month.getValue());
-
-          List<UDTValue> udtContributions = monthContributions.values().stream().map(contribution -> {
-            UDTValue udtContribution = this.contributionUdtType.newValue();
-            udtContribution
-                .setString("type", contribution.type)
-                .setDecimal("income", contribution.income)
-                .setDecimal("base_income", contribution.baseIncome)
-                .setDecimal("rate", contribution.rate)
-                .setDecimal("contribution", contribution.contribution);
-            return udtContribution;
-          }).collect(Collectors.toList());
-
-          bindWrite.setList("contributions", udtContributions);
-          return bindWrite;
-
-        }).collect(Collectors.toList());
-    return completedStatements(boundStatements);
+    Pair<String, Integer> key = new Pair<>(event.contributorId, event.year);
+    PMap<Month, PMap<String, Contribution>> lastWritten =
+        Optional.ofNullable(written.getIfPresent(key)).orElse(HashTreePMap.empty());
+    return executor.supplyAsync(() -> changedMonths(event.contributions, lastWritten))
+        .thenCompose(changed -> {
+          if (changed.isEmpty()) {
+            return completedStatements(Collections.<BoundStatement>emptyList());
+          }
+          // the offset is then stored on its own, once the contributions are written and their cache invalidated
+          return writePartition(bindWriteContributions(event.contributorId, event.year, changed))
+              .thenCompose(done -> {
+                written.put(key, lastWritten.plusAll(changed));
+                cache.invalidate(event.contributorId, event.year);
+                return completedStatements(Collections.<BoundStatement>emptyList());
+              });
+        });
+  }
+
+  /**
+   * Returns the months whose contributions differ from the ones last written.
+   */
+  private static Map<Month, PMap<String, Contribution>> changedMonths(
+      Map<Month, PMap<String, Contribution>> contributions, Map<Month, PMap<String, Contribution>> lastWritten) {
+    Map<Month, PMap<String, Contribution>> changed = new EnumMap<>(Month.class);
+    contributions.forEach((month, monthContributions) -> {
+      if (!monthContributions.equals(lastWritten.get(month))) {
+        changed.put(month, monthContributions);
+      }
+    });
+    return changed;
+  }
+
+  private List<BoundStatement> bindWriteContributions(
+      String contributorId, int year, Map<Month, PMap<String, Contribution>> contributions) {
+    return contributions.entrySet().stream()
+        .map(entry -> bindWriteContribution(contributorId, year, entry.getKey(), entry.getValue()))
+        .collect(Collectors.toList());
+  }
+
+  private BoundStatement bindWriteContribution(
+      String contributorId, int year, Month month, PMap<String, Contribution> monthContributions) {
+    BoundStatement bindWrite = writeContributions.bind();
+    bindWrite.setString("contributor_id", contributorId);
+    bindWrite.setString("region", regionFromContributorId.apply(contributorId));
+    bindWrite.setInt("year", year);
+    bindWrite.setInt("month", month.getValue());
+
+    List<UDTValue> udtContributions = monthContributions.values().stream().map(contribution -> {
+      UDTValue udtContribution = this.contributionUdtType.newValue();
+      udtContribution
+          .setString("type", contribution.type)
+          .setDecimal("income", contribution.income)
+          .setDecimal("base_income", contribution.baseIncome)
+          .setDecimal("rate", contribution.rate)
+          .setDecimal("contribution", contribution.contribution);
+      return udtContribution;
+    }).collect(Collectors.toList());
+
+    bindWrite.setList("contributions", udtContributions);
+    return bindWrite;
+  }
+
+  /**
+   * Writes statements of a single partition: an unlogged batch applies them as one mutation.
+   */
+  private CompletionStage<Done> writePartition(List<BoundStatement> statements) {
+    if (statements.size() == 1) {
+      return session.executeWrite(statements.get(0));
+    }
+    BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+    batch.addAll(statements);
+    return session.executeWriteBatch(batch);
   }
 
   private CompletionStage<Done> ensureTables() {
@@ -163,6 +371,22 @@ public class ContributionRepositoryCassandraImpl implements ContributionReposito
         .addColumn("registration_date", DataType.timestamp())
         .ifNotExists();
 
+    final Statement createContributorsByRegion = createTable("contributors_by_region")
+        .addPartitionKey("region", DataType.text())
+        .addPartitionKey("bucket", DataType.cint())
+        .addClusteringColumn("id", DataType.text())
+        .addColumn("registration_date", DataType.timestamp())
+        .ifNotExists();
+
+    final Statement createMigrations = createTable("read_side_migrations")
+        .addPartitionKey("name", DataType.text())
+        .ifNotExists();
+
+    final Statement createMigrationPositions = createTable("read_side_migration_positions")
+        .addPartitionKey("name", DataType.text())
+        .addColumn("paging_state", DataType.text())
+        .ifNotExists();
+
     final Statement createContributions = createTable("contributions")
         .addPartitionKey("region", DataType.text())
         .addPartitionKey("contributor_id", DataType.text())
@@ -177,6 +401,9 @@ public class ContributionRepositoryCassandraImpl implements ContributionReposito
     final BatchStatement batch = new BatchStatement();
     batch.add(createTypeStmt);
     batch.add(createContributors);
+    batch.add(createContributorsByRegion);
+    batch.add(createMigrations);
+    batch.add(createMigrationPositions);
     batch.add(createContributions);
 
     return session.underlying().thenApply(underlyingSession -> {
@@ -197,10 +424,77 @@ public class ContributionRepositoryCassandraImpl implements ContributionReposito
     });
   }
 
+  /**
+   * Copies the contributors registered before {@code contributors_by_region} existed into it, once: the copy is
+   * recorded in {@code read_side_migrations} when complete.
+   * <p>
+   * The contributors are copied page by page, the position of the next page being recorded in
+   * {@code read_side_migration_positions} once a page is copied: an interrupted copy resumes from there. It runs in the
+   * background (see {@link RegionIndexMigration}) and fails until the global prepare of the read-side has created the
+   * tables.
+   */
+  CompletionStage<Done> migrateContributorsByRegion() {
+    return session.selectOne(SELECT_MIGRATION, REGION_INDEX_MIGRATION).thenCompose(migration -> {
+      if (migration.isPresent()) {
+        return CompletableFuture.completedFuture(Done.getInstance());
+      }
+      return prepareWriteContributorsByRegion()
+          .thenCompose(done -> session.selectOne(SELECT_MIGRATION_POSITION, REGION_INDEX_MIGRATION))
+          .thenCompose(position -> {
+            Optional<String> pagingState = position.map(row -> row.getString("paging_state"));
+            logger.info("Copying the contributors into contributors_by_region{}..",
+                pagingState.isPresent() ? ", from the recorded position" : "");
+            return copyContributorsByRegion(pagingState);
+          })
+          .thenCompose(done -> session.executeWrite(WRITE_MIGRATION, REGION_INDEX_MIGRATION))
+          .thenApply(done -> {
+            logger.info("Contributors copied into contributors_by_region");
+            return done;
+          });
+    });
+  }
+
+  /**
+   * Copies the page of contributors at a position, then the next pages.
+   */
+  private CompletionStage<Done> copyContributorsByRegion(Optional<String> pagingState) {
+    Statement statement = new SimpleStatement(SELECT_CONTRIBUTORS).setFetchSize(MIGRATION_FETCH_SIZE);
+    try {
+      pagingState.map(PagingState::fromString).ifPresent(statement::setPagingState);
+    } catch (PagingStateException e) {
+      logger.warn("Invalid position of the contributors copy, restarting it: {}", e.getMessage());
+      return copyContributorsByRegion(Optional.empty());
+    }
+    return session.underlying()
+        .thenCompose(underlyingSession -> toCompletionStage(underlyingSession.executeAsync(statement)))
+        .thenCompose(resultSet -> {
+          // only the rows of the page: the next one is fetched once its position is recorded
+          int available = resultSet.getAvailableWithoutFetching();
+          List<Row> rows = new ArrayList<>(available);
+          for (int i = 0; i < available; i++) {
+            rows.add(resultSet.one());
+          }
+          Optional<String> next = Optional.ofNullable(resultSet.getExecutionInfo().getPagingState())
+              .map(PagingState::toString);
+          return Source.from(rows)
+              .mapAsyncUnordered(MIGRATION_PARALLELISM, row -> session.executeWrite(
+                  bindWriteContributorByRegion(row.getString("id"), row.getTimestamp("registration_date"))))
+              .runWith(Sink.ignore(), materializer)
+              .thenCompose(done -> {
+                if (!next.isPresent()) {
+                  return CompletableFuture.completedFuture(done);
+                }
+                logger.debug("{} contributors copied into contributors_by_region", rows.size());
+                return session.executeWrite(WRITE_MIGRATION_POSITION, REGION_INDEX_MIGRATION, next.get())
+                    .thenCompose(written -> copyContributorsByRegion(next));
+              });
+        });
+  }
+
   private CompletionStage<Done> prepareStatements() {
 
-    return CompletableFuture
-        .supplyAsync(this::prepareWriteContributors)
+    return prepareWriteContributors()
+        .thenCompose(done -> prepareWriteContributorsByRegion())
         .thenCompose(done -> prepareWriteContributions());
   }
 
@@ -214,6 +508,16 @@ public class ContributionRepositoryCassandraImpl implements ContributionReposito
         });
   }
 
+  private CompletionStage<Done> prepareWriteContributorsByRegion() {
+    return session.prepare(
+        "INSERT INTO contributors_by_region (region, bucket, id, registration_date)" +
+            " VALUES (?, ?, ?, ?)")
+        .thenApply(ps -> {
+          this.writeContributorsByRegion = ps;
+          return Done.getInstance();
+        });
+  }
+
   private CompletionStage<Done> prepareWriteContributions() {
     return session.prepare(
         "INSERT INTO contributions (contributor_id, region, year, month, contributions)" +
@@ -223,4 +527,105 @@ public class ContributionRepositoryCassandraImpl implements ContributionReposito
           return Done.getInstance();
         });
   }
+
+  /**
+   * Processes the events of a tag by micro-batches of {@code income.read-side.micro-batch.max-events} events, or of
+   * the events received within {@code max-wait}. The writes of a batch are merged (the last write of a contributor or
+   * of a contribution month wins) and the offset is committed once, when they are all written.
+   * <p>
+   * The offset is kept by the Lagom offset store, under the id of the built-in handler: switching between the
+   * processing modes does not replay the events.
+   */
+  private class MicroBatchHandler extends ReadSideProcessor.ReadSideHandler<IncomeTaxEvent> {
+
+    private String tag; // initialized in prepare
+    private OffsetDao offsetDao; // initialized in prepare
+
+    @Override
+    public CompletionStage<Done> globalPrepare() {
+      return ensureTables();
+    }
+
+    @Override
+    public CompletionStage<Offset> prepare(AggregateEventTag<IncomeTaxEvent> tag) {
+      this.tag = tag.tag();
+      return prepareStatements()
+          .thenCompose(done -> FutureConverters.toJava(offsetStore.prepare(OFFSET_ID, this.tag)))
+          .thenApply(dao -> {
+            this.offsetDao = dao;
+            return toOffset(dao.loadedOffset());
+          });
+    }
+
+    @Override
+    public Flow<Pair<IncomeTaxEvent, Offset>, Done, ?> handle() {
+      return Flow.<Pair<IncomeTaxEvent, Offset>>create()
+          .groupedWithin(microBatchMaxEvents, microBatchMaxWait)
+          .mapAsync(1, this::handleBatch);
+    }
+
+    private CompletionStage<Done> handleBatch(List<Pair<IncomeTaxEvent, Offset>> events) {
+      logger.debug("processing a batch of {} events of {}", events.size(), tag);
+      Offset offset = events.get(events.size() - 1).second();
+      return executor.supplyAsync(() -> bindWrites(events))
+          .thenCompose(writes -> CompletableFuture.allOf(writes.stream()
+              .map(statements -> writePartition(statements).toCompletableFuture())
+              .toArray(CompletableFuture<?>[]::new)))
+          .thenCompose(done -> {
+            events.stream()
+                .map(Pair::first)
+                .filter(IncomeTaxEvent.IncomeApplied.class::isInstance)
+                .map(IncomeTaxEvent.IncomeApplied.class::cast)
+                .forEach(incomeApplied -> cache.invalidate(incomeApplied.contributorId, incomeApplied.year));
+            return FutureConverters.toJava(offsetDao.saveOffset(toQueryOffset(offset)));
+          });
+    }
+
+    /**
+     * Returns the merged writes of the events, grouped by partition.
+     */
+    private List<List<BoundStatement>> bindWrites(List<Pair<IncomeTaxEvent, Offset>> events) {
+      Map<String, List<BoundStatement>> contributors = new LinkedHashMap<>();
+      // by contributor, then by year and month
+      Map<String, Map<Integer, BoundStatement>> contributions = new LinkedHashMap<>();
+      for (Pair<IncomeTaxEvent, Offset> eventAndOffset : events) {
+        IncomeTaxEvent event = eventAndOffset.first();
+        if (event instanceof IncomeTaxEvent.Registered) {
+          IncomeTaxEvent.Registered registered = (IncomeTaxEvent.Registered) event;
+          contributors.put(registered.contributorId, bindWriteContributor(registered));
+        } else if (event instanceof IncomeTaxEvent.IncomeApplied) {
+          IncomeTaxEvent.IncomeApplied incomeApplied = (IncomeTaxEvent.IncomeApplied) event;
+          Map<Integer, BoundStatement> months =
+              contributions.computeIfAbsent(incomeApplied.contributorId, id -> new LinkedHashMap<>());
+          incomeApplied.contributions.forEach((month, monthContributions) ->
+              months.put(incomeApplied.year * 100 + month.getValue(), bindWriteContribution(
+                  incomeApplied.contributorId, incomeApplied.year, month, monthContributions)));
+        }
+      }
+      List<List<BoundStatement>> writes = new ArrayList<>();
+      // the contributor rows are in distinct tables, hence partitions
+      contributors.values().forEach(statements -> statements.forEach(statement ->
+          writes.add(Collections.singletonList(statement))));
+      contributions.values().forEach(months -> writes.add(new ArrayList<>(months.values())));
+      return writes;
+    }
+
+    private Offset toOffset(akka.persistence.query.Offset offset) {
+      if (offset instanceof TimeBasedUUID) {
+        return Offset.timeBasedUUID(((TimeBasedUUID) offset).value());
+      } else if (offset instanceof Sequence) {
+        return Offset.sequence(((Sequence) offset).value());
+      }
+      return Offset.NONE;
+    }
+
+    private akka.persistence.query.Offset toQueryOffset(Offset offset) {
+      if (offset instanceof Offset.TimeBasedUUID) {
+        return new TimeBasedUUID(((Offset.TimeBasedUUID) offset).value());
+      } else if (offset instanceof Offset.Sequence) {
+        return new Sequence(((Offset.Sequence) offset).value());
+      }
+      return NoOffset.getInstance();
+    }
+  }
 }
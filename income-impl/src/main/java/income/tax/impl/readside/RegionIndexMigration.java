@@ -0,0 +1,68 @@
+package income.tax.impl.readside;
+
+import akka.Done;
+import akka.actor.AbstractActor;
+import akka.actor.ActorSystem;
+import akka.actor.PoisonPill;
+import akka.actor.Props;
+import akka.actor.Status;
+import akka.cluster.singleton.ClusterSingletonManager;
+import akka.cluster.singleton.ClusterSingletonManagerSettings;
+import akka.pattern.BackoffOpts;
+import akka.pattern.BackoffSupervisor;
+import akka.pattern.Patterns;
+
+import javax.inject.Inject;
+import java.time.Duration;
+
+/**
+ * Copies the contributors registered before {@code contributors_by_region} existed into it, in the background and on
+ * a single node of the cluster, once the application is started: the queries of a region fail until the copy is
+ * complete.
+ * <p>
+ * A failed copy (the tables not being created yet, for instance) is restarted with a backoff and resumes from its
+ * recorded position (see {@link ContributionRepositoryCassandraImpl#migrateContributorsByRegion()}).
+ */
+public class RegionIndexMigration {
+
+  @Inject
+  public RegionIndexMigration(ContributionRepositoryCassandraImpl repository, ActorSystem system) {
+    Props migrator = BackoffSupervisor.props(BackoffOpts.onFailure(
+        Props.create(Migrator.class, () -> new Migrator(repository)),
+        "migrator",
+        Duration.ofSeconds(3),
+        Duration.ofMinutes(1),
+        0.2));
+    system.actorOf(
+        ClusterSingletonManager.props(migrator, PoisonPill.getInstance(), ClusterSingletonManagerSettings.create(system)),
+        "region-index-migration");
+  }
+
+  /**
+   * Runs the copy when started, and stops once it is complete.
+   */
+  private static class Migrator extends AbstractActor {
+
+    private final ContributionRepositoryCassandraImpl repository;
+
+    Migrator(ContributionRepositoryCassandraImpl repository) {
+      this.repository = repository;
+    }
+
+    @Override
+    public void preStart() {
+      Patterns.pipe(repository.migrateContributorsByRegion(), context().dispatcher()).to(self());
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder()
+          .match(Done.class, done -> context().stop(self()))
+          .match(Status.Failure.class, failure -> {
+            throw new IllegalStateException("Copy of the contributors into contributors_by_region failed",
+                failure.cause());
+          })
+          .build();
+    }
+  }
+}
@@ -8,8 +8,11 @@ import java.math.RoundingMode;
 import java.time.*;
 import java.time.temporal.TemporalAdjusters;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 public class IncomeUtils {
 
@@ -84,4 +87,19 @@ public class IncomeUtils {
     incomes.put(income.end.getMonth(), new Income(scaledIncome + remainder, income.incomeType, startDay, endDay));
     return incomes;
   }
+
+  /**
+   * Groups the months by income: the contributions of a month only depend on its income.
+   * Incomes are ordered by their first month.
+   */
+  public static Map<Long, Set<Month>> monthsByIncome(Map<Month, Income> incomes) {
+    Map<Long, Set<Month>> months = new LinkedHashMap<>();
+    for (Month month : Month.values()) {
+      Income income = incomes.get(month);
+      if (income != null) {
+        months.computeIfAbsent(income.income, key -> EnumSet.noneOf(Month.class)).add(month);
+      }
+    }
+    return months;
+  }
 }
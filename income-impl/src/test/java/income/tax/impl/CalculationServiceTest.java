@@ -1,28 +1,35 @@
 package income.tax.impl;
 
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
 import com.lightbend.lagom.javadsl.api.ServiceCall;
 import income.tax.api.*;
 import income.tax.contribution.api.CalculatorService;
 import income.tax.contribution.api.Contribution;
 import income.tax.contribution.api.MonthlyIncomeRequest;
+import income.tax.contribution.api.YearlyIncomeRequest;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.pcollections.PSequence;
+import org.pcollections.TreePVector;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.time.*;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static com.lightbend.lagom.javadsl.testkit.ServiceTest.*;
 import static income.tax.impl.tools.DateUtils.maxLastDayOfMonth;
@@ -116,8 +123,8 @@ public class CalculationServiceTest {
     registerContributor(contributorId);
 
     // Act
-    PSequence<Contributor> contributors = service.getContributors().invoke()
-        .toCompletableFuture().get(TIMEOUT, SECONDS);
+    PSequence<Contributor> contributors = service.getContributors(Optional.empty(), Optional.empty(), Optional.empty()).invoke()
+        .toCompletableFuture().get(TIMEOUT, SECONDS).contributors;
 
     // Assert
     Assertions.assertThat(contributors)
@@ -132,18 +139,41 @@ public class CalculationServiceTest {
 
     @Override
     public ServiceCall<MonthlyIncomeRequest, Map<String, Contribution>> compute() {
-      return monthlyIncomeRequest -> {
-        int contributionIndex = counter.addAndGet(1) % TIMEOUT;
-        String contributionType = String.format("MOCK%03d", contributionIndex);
-        BigDecimal baseIncome = monthlyIncomeRequest.income.multiply(new BigDecimal("0.75"));
-        BigDecimal rate = new BigDecimal("0.075");
-        BigDecimal contribution = baseIncome.multiply(rate, mc);
-        final Map<String, Contribution> mockedContribution =
-            Collections.singletonMap(contributionType,
-                new Contribution(contributionType, monthlyIncomeRequest.income, baseIncome, rate, contribution));
-        return CompletableFuture.completedFuture(mockedContribution);
+      return monthlyIncomeRequest -> CompletableFuture.completedFuture(mockedContribution(monthlyIncomeRequest.income));
+    }
+
+    @Override
+    public ServiceCall<YearlyIncomeRequest, Map<Month, Map<String, Contribution>>> computeYear() {
+      return yearlyIncomeRequest -> {
+        Map<Month, Map<String, Contribution>> mockedContributions = new EnumMap<>(Month.class);
+        yearlyIncomeRequest.incomes.forEach((month, income) -> mockedContributions.put(month, mockedContribution(income)));
+        return CompletableFuture.completedFuture(mockedContributions);
       };
     }
+
+    @Override
+    public ServiceCall<PSequence<MonthlyIncomeRequest>, PSequence<Map<String, Contribution>>> computeBatch() {
+      return monthlyIncomeRequests -> CompletableFuture.completedFuture(
+          TreePVector.from(monthlyIncomeRequests.stream()
+              .map(monthlyIncomeRequest -> mockedContribution(monthlyIncomeRequest.income))
+              .collect(Collectors.toList())));
+    }
+
+    @Override
+    public ServiceCall<Source<MonthlyIncomeRequest, NotUsed>, Source<Map<String, Contribution>, NotUsed>> computeStream() {
+      return monthlyIncomeRequests -> CompletableFuture.completedFuture(
+          monthlyIncomeRequests.map(monthlyIncomeRequest -> mockedContribution(monthlyIncomeRequest.income)));
+    }
+
+    private Map<String, Contribution> mockedContribution(BigDecimal income) {
+      int contributionIndex = counter.addAndGet(1) % TIMEOUT;
+      String contributionType = String.format("MOCK%03d", contributionIndex);
+      BigDecimal baseIncome = income.multiply(new BigDecimal("0.75"));
+      BigDecimal rate = new BigDecimal("0.075");
+      BigDecimal contribution = baseIncome.multiply(rate, mc);
+      return Collections.singletonMap(contributionType,
+          new Contribution(contributionType, income, baseIncome, rate, contribution));
+    }
   }
 
   private Contributions registerContributor(String contributorId) throws InterruptedException, ExecutionException, TimeoutException {
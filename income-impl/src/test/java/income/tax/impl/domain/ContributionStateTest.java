@@ -0,0 +1,76 @@
+package income.tax.impl.domain;
+
+import income.tax.contribution.api.Contribution;
+import org.junit.jupiter.api.Test;
+import org.pcollections.HashTreePMap;
+import org.pcollections.PMap;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Month;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class ContributionStateTest {
+
+  @Test
+  public void emptyHasEveryMonth() {
+    PMap<Month, PMap<String, Contribution>> contributions = ContributionState.empty().getContributions();
+
+    assertThat(contributions).hasSize(12);
+    assertThat(contributions.values()).allMatch(Map::isEmpty);
+  }
+
+  @Test
+  public void keepsContributionsAsGiven() {
+    Map<String, Contribution> january = new HashMap<>();
+    january.put("MLD1T1", contribution("MLD1T1", new BigDecimal("17.0000")));
+    january.put("CSG/CRDS", contribution("CSG/CRDS", null));
+    january.put("MOCK001", contribution("MOCK001", new BigDecimal("1.5")));
+    january.put("AF", contribution("AF", new BigDecimal(BigInteger.TEN.pow(30), 2)));
+    PMap<Month, PMap<String, Contribution>> contributions = HashTreePMap.singleton(Month.JANUARY, HashTreePMap.from(january));
+
+    ContributionState state = new ContributionState(contributions);
+
+    assertThat(state.getContributions()).isEqualTo(contributions);
+    assertThat(state.getContributions().get(Month.JANUARY).get("MLD1T1").contribution).isEqualTo(new BigDecimal("17.0000"));
+  }
+
+  @Test
+  public void updateReplacesTheGivenMonths() {
+    PMap<String, Contribution> first = HashTreePMap.singleton("RVB T1", contribution("RVB T1", BigDecimal.ONE));
+    PMap<String, Contribution> second = HashTreePMap.singleton("RID", contribution("RID", BigDecimal.TEN));
+    ContributionState state = ContributionState.empty()
+        .update(HashTreePMap.singleton(Month.MARCH, first))
+        .update(HashTreePMap.singleton(Month.MARCH, second));
+
+    assertThat(state.getContributions().get(Month.MARCH)).isEqualTo(second);
+    assertThat(state.getContributions().get(Month.APRIL)).isEmpty();
+    assertThat(state).isEqualTo(new ContributionState(state.getContributions()));
+    assertThat(state.hashCode()).isEqualTo(new ContributionState(state.getContributions()).hashCode());
+  }
+
+  @Test
+  public void maintainsTotalsByType() {
+    ContributionState state = ContributionState.empty()
+        .update(HashTreePMap.singleton(Month.JANUARY,
+            HashTreePMap.singleton("AF", contribution("AF", new BigDecimal("10.125")))))
+        .update(HashTreePMap.singleton(Month.FEBRUARY,
+            HashTreePMap.singleton("AF", contribution("AF", new BigDecimal("5.5")))))
+        .update(HashTreePMap.singleton(Month.JANUARY,
+            HashTreePMap.singleton("RID", contribution("RID", new BigDecimal("2")))));
+
+    // as if the contributions were summed up from scratch
+    assertThat(state.totals()).containsOnly(entry("AF", new BigDecimal("5.5")), entry("RID", new BigDecimal("2")));
+    assertThat(state.byMonth().keySet()).containsExactly(Month.values());
+    assertThat(state.byMonth().get(Month.JANUARY)).containsExactly(contribution("RID", new BigDecimal("2")));
+  }
+
+  private static Contribution contribution(String type, BigDecimal contribution) {
+    BigDecimal income = BigDecimal.valueOf(2_000);
+    return new Contribution(type, income, income, new BigDecimal("0.0085"), contribution);
+  }
+}
@@ -1,5 +1,6 @@
 package income.tax.impl.domain;
 
+import akka.Done;
 import akka.actor.ActorSystem;
 import akka.testkit.javadsl.TestKit;
 import com.lightbend.lagom.javadsl.testkit.PersistentEntityTestDriver;
@@ -8,6 +9,7 @@ import income.tax.api.Contributions;
 import income.tax.api.Income;
 import income.tax.api.IncomeType;
 import income.tax.contribution.api.Contribution;
+import income.tax.impl.IncomeTaxException;
 import income.tax.impl.tools.IncomeUtils;
 import org.junit.jupiter.api.*;
 import org.pcollections.HashTreePMap;
@@ -208,6 +210,84 @@ class IncomeTaxEntityTest {
 
   }
 
+  @Test
+  public void validateIncome() {
+    // Arrange
+    final String contributorId = ENTITY_ID;
+    LocalDate april = LocalDate.of(2020, Month.APRIL, 1);
+    Income monthlyIncome =
+        new Income(1500, IncomeType.estimated,
+            minFirstDayOfMonthFromDate.apply(april), maxLastDayOfMonthFromDate.apply(april));
+    Income nextYearIncome =
+        new Income(1500, IncomeType.estimated,
+            minFirstDayOfMonthFromDate.apply(april.plusYears(1)), maxLastDayOfMonthFromDate.apply(april.plusYears(1)));
+
+    // Act & Assert
+    Outcome<IncomeTaxEvent, IncomeTaxState> notRegistered =
+        driver.run(new IncomeTaxCommand.ValidateIncome(contributorId, monthlyIncome));
+    assertThat(notRegistered.getReplies()).hasSize(1);
+    assertThat(notRegistered.getReplies().get(0)).isInstanceOf(IncomeTaxException.class);
+
+    driver.initialize(Optional.of(initialState(contributorId, 2020)));
+
+    Outcome<IncomeTaxEvent, IncomeTaxState> valid =
+        driver.run(new IncomeTaxCommand.ValidateIncome(contributorId, monthlyIncome));
+    assertThat(valid.events()).isEmpty();
+    assertThat(valid.getReplies()).containsExactly(Done.getInstance());
+
+    Outcome<IncomeTaxEvent, IncomeTaxState> otherYear =
+        driver.run(new IncomeTaxCommand.ValidateIncome(contributorId, nextYearIncome));
+    assertThat(otherYear.events()).isEmpty();
+    assertThat(otherYear.getReplies().get(0)).isInstanceOf(IncomeTaxException.class);
+  }
+
+  @Test
+  public void validateRegistration() {
+    // Arrange
+    final String contributorId = ENTITY_ID;
+
+    // Act & Assert
+    Outcome<IncomeTaxEvent, IncomeTaxState> notRegistered =
+        driver.run(new IncomeTaxCommand.ValidateRegistration(contributorId));
+    assertThat(notRegistered.getReplies()).containsExactly(Done.getInstance());
+
+    driver.initialize(Optional.of(initialState(contributorId, 2020)));
+
+    Outcome<IncomeTaxEvent, IncomeTaxState> registered =
+        driver.run(new IncomeTaxCommand.ValidateRegistration(contributorId));
+    assertThat(registered.events()).isEmpty();
+    assertThat(registered.getReplies().get(0)).isInstanceOf(IncomeTaxException.class);
+  }
+
+  @Test
+  public void closeYear() {
+    // Arrange
+    final String contributorId = ENTITY_ID;
+    IncomeTaxState incomeTaxState = initialState(contributorId, 2020);
+    driver.initialize(Optional.of(incomeTaxState));
+    long yearlyIncome = incomeTaxState.currentIncomes.values().stream().mapToLong(Income::getIncome).sum();
+
+    // Act
+    Outcome<IncomeTaxEvent, IncomeTaxState> notCurrentYear =
+        driver.run(new IncomeTaxCommand.CloseYear(contributorId, 2019));
+    Outcome<IncomeTaxEvent, IncomeTaxState> outcome =
+        driver.run(new IncomeTaxCommand.CloseYear(contributorId, 2020));
+
+    // Assert
+    assertThat(notCurrentYear.events()).isEmpty();
+    assertThat(notCurrentYear.getReplies().get(0)).isInstanceOf(IncomeTaxException.class);
+
+    assertThat(outcome.events()).hasSize(1);
+    assertThat(outcome.getReplies()).containsExactly(Done.getInstance());
+    IncomeTaxState state = outcome.state();
+    assertThat(state.contributionYear).isEqualTo(2021);
+    assertThat(state.currentIncomes).isEmpty();
+    assertThat(state.contributions).isEqualTo(ContributionState.empty());
+    assertThat(state.previousYearlyIncomes).containsKeys(2019, 2020);
+    assertThat(state.previousYearlyIncomes.get(2020).income).isEqualTo(yearlyIncome);
+    assertThat(state.previousYearlyIncomes.get(2020).incomeType).isEqualTo(IncomeType.estimated);
+  }
+
   private Map<Month, Income> yearlyIncome(int year, long... amounts) {
     assertThat(amounts).hasSize(12);
     Map<Month, Income> yearlyIncomes = new HashMap<>(12);
@@ -0,0 +1,136 @@
+package income.tax.impl.domain;
+
+import akka.actor.ActorSystem;
+import akka.serialization.Serialization;
+import akka.serialization.SerializationExtension;
+import akka.serialization.Serializer;
+import akka.serialization.SerializerWithStringManifest;
+import akka.testkit.javadsl.TestKit;
+import income.tax.api.Income;
+import income.tax.api.IncomeType;
+import income.tax.contribution.api.Contribution;
+import income.tax.impl.tools.IncomeUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.pcollections.HashTreePMap;
+import org.pcollections.PMap;
+
+import java.math.BigDecimal;
+import java.time.Month;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncomeTaxSerializerTest {
+
+  private static final String LAGOM_JSON_SERIALIZER =
+      "com.lightbend.lagom.internal.javadsl.persistence.jackson.JacksonJsonSerializer";
+  private static final OffsetDateTime NOW = OffsetDateTime.of(2019, 3, 12, 10, 30, 0, 0, ZoneOffset.ofHours(1));
+
+  private static ActorSystem system;
+  private static Serialization serialization;
+
+  @BeforeAll
+  public static void setup() {
+    system = ActorSystem.create(IncomeTaxSerializerTest.class.getSimpleName());
+    serialization = SerializationExtension.get(system);
+  }
+
+  @AfterAll
+  public static void teardown() {
+    TestKit.shutdownActorSystem(system);
+    system = null;
+  }
+
+  @Test
+  public void isBoundToEventsAndState() {
+    assertThat(serialization.findSerializerFor(registered())).isInstanceOf(IncomeTaxSerializer.class);
+    assertThat(serialization.findSerializerFor(incomeApplied())).isInstanceOf(IncomeTaxSerializer.class);
+    assertThat(serialization.findSerializerFor(state())).isInstanceOf(IncomeTaxSerializer.class);
+  }
+
+  @Test
+  public void roundTrips() {
+    assertThat(roundTrip(registered())).isEqualTo(registered());
+    assertThat(roundTrip(incomeApplied())).isEqualTo(incomeApplied());
+    assertThat(roundTrip(state())).isEqualTo(state());
+    assertThat(roundTrip(yearClosed())).isEqualTo(yearClosed());
+  }
+
+  @Test
+  public void isSmallerThanJson() {
+    SerializerWithStringManifest json = jsonSerializer();
+    IncomeTaxSerializer binary = new IncomeTaxSerializer();
+
+    assertThat(binary.toBinary(incomeApplied()).length).isLessThan(json.toBinary(incomeApplied()).length / 2);
+    assertThat(binary.toBinary(state()).length).isLessThan(json.toBinary(state()).length);
+  }
+
+  @Test
+  public void readsEventsPersistedAsJson() {
+    SerializerWithStringManifest json = jsonSerializer();
+    IncomeTaxEvent event = incomeApplied();
+
+    // what the journal does with the serializer id and manifest stored along with the event
+    Object deserialized = serialization.deserialize(
+        json.toBinary(event), json.identifier(), json.manifest(event)).get();
+
+    assertThat(deserialized).isEqualTo(event);
+  }
+
+  private static Object roundTrip(Object o) {
+    SerializerWithStringManifest serializer = (SerializerWithStringManifest) serialization.findSerializerFor(o);
+    return serialization.deserialize(serializer.toBinary(o), serializer.identifier(), serializer.manifest(o)).get();
+  }
+
+  private static SerializerWithStringManifest jsonSerializer() {
+    Serializer serializer = serialization.serializerOf(LAGOM_JSON_SERIALIZER).get();
+    return (SerializerWithStringManifest) serializer;
+  }
+
+  private static IncomeTaxEvent.Registered registered() {
+    return new IncomeTaxEvent.Registered("#ContributorId", NOW, IncomeUtils.yearIncome(12_000, 2018, IncomeType.real));
+  }
+
+  private static IncomeTaxEvent.IncomeApplied incomeApplied() {
+    Income income = IncomeUtils.yearIncome(24_000, 2019, IncomeType.estimated);
+    return new IncomeTaxEvent.IncomeApplied("#ContributorId", income, NOW, 2019, contributions());
+  }
+
+  private static IncomeTaxEvent.YearClosed yearClosed() {
+    return new IncomeTaxEvent.YearClosed("#ContributorId", 2019, IncomeUtils.yearIncome(24_000, 2019, IncomeType.real), NOW);
+  }
+
+  private static IncomeTaxState state() {
+    Income income = IncomeUtils.yearIncome(24_000, 2019, IncomeType.estimated);
+    return IncomeTaxState.of("#ContributorId", true, NOW, IncomeUtils.yearIncome(12_000, 2018, IncomeType.real))
+        .modifier()
+        .withNewIncome(income)
+        .withNewContributions(contributions())
+        .modify();
+  }
+
+  private static PMap<Month, PMap<String, Contribution>> contributions() {
+    Map<Month, PMap<String, Contribution>> contributions = new EnumMap<>(Month.class);
+    for (Month month : Month.values()) {
+      BigDecimal income = BigDecimal.valueOf(2_000);
+      Map<String, Contribution> monthContributions = new HashMap<>();
+      monthContributions.put("MLD1T1", contribution("MLD1T1", income, income, "0.0085"));
+      monthContributions.put("RVB T1", contribution("RVB T1", income, BigDecimal.valueOf(3_377), "0.1775"));
+      monthContributions.put("CSG/CRDS", contribution("CSG/CRDS", income, income, "0.097"));
+      monthContributions.put("MOCK001", contribution("MOCK001", BigDecimal.valueOf(1_999.5), income, "0.01"));
+      contributions.put(month, HashTreePMap.from(monthContributions));
+    }
+    return HashTreePMap.from(contributions);
+  }
+
+  private static Contribution contribution(String type, BigDecimal income, BigDecimal baseIncome, String rate) {
+    BigDecimal contributionRate = new BigDecimal(rate);
+    return new Contribution(type, income, baseIncome, contributionRate, baseIncome.multiply(contributionRate));
+  }
+}
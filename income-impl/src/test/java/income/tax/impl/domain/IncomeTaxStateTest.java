@@ -0,0 +1,35 @@
+package income.tax.impl.domain;
+
+import income.tax.api.Income;
+import income.tax.api.IncomeType;
+import income.tax.impl.tools.IncomeUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.Month;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncomeTaxStateTest {
+
+  @Test
+  public void maintainsIncomeTotals() {
+    OffsetDateTime registrationDate = OffsetDateTime.of(2019, 3, 12, 0, 0, 0, 0, ZoneOffset.UTC);
+    Income yearlyIncome = IncomeUtils.yearIncome(12_005, 2019, IncomeType.estimated);
+    Income monthlyIncome = Income.zero(2019, Month.MAY);
+    Income realIncome = new Income(3_000, IncomeType.real, monthlyIncome.start, monthlyIncome.end);
+
+    IncomeTaxState state = IncomeTaxState.of("#1", true, registrationDate, Income.ZERO)
+        .modifier()
+        .withNewIncome(yearlyIncome)
+        .withNewIncome(realIncome)
+        .modify();
+
+    assertThat(state.incomeTotals.income).isEqualTo(12_005 - 1_000 + 3_000);
+    assertThat(state.incomeTotals.start).isEqualTo(Month.JANUARY);
+    assertThat(state.incomeTotals.end).isEqualTo(Month.DECEMBER);
+    // as if computed from the incomes
+    assertThat(state.incomeTotals).isEqualTo(IncomeTaxState.IncomeTotals.of(state.currentIncomes));
+  }
+}
@@ -0,0 +1,52 @@
+package income.tax.impl.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RecoveryMetricsTest {
+
+  @Test
+  public void aggregatesRecoveries() {
+    RecoveryMetrics metrics = new RecoveryMetrics();
+
+    metrics.record("#1", false, TimeUnit.MILLISECONDS.toNanos(30), 25);
+    metrics.record("#2", true, TimeUnit.MILLISECONDS.toNanos(10), 3);
+
+    RecoveryMetrics.Stats stats = metrics.stats();
+    assertThat(stats.activations).isEqualTo(2);
+    assertThat(stats.snapshotRecoveries).isEqualTo(1);
+    assertThat(stats.replayedEvents).isEqualTo(28);
+    assertThat(stats.maxReplayedEvents).isEqualTo(25);
+    assertThat(stats.meanRecoveryMillis).isCloseTo(20.0, within(0.001));
+    assertThat(stats.maxRecoveryMillis).isCloseTo(30.0, within(0.001));
+    assertThat(stats.slowestEntityId).isEqualTo("#1");
+  }
+
+  @Test
+  public void countsEachActivationInItsBucket() {
+    RecoveryMetrics metrics = new RecoveryMetrics();
+
+    metrics.record("#1", false, TimeUnit.MILLISECONDS.toNanos(30), 25);
+    metrics.record("#2", true, TimeUnit.MILLISECONDS.toNanos(10), 0);
+    metrics.record("#3", false, TimeUnit.SECONDS.toNanos(20), 10_000);
+
+    RecoveryMetrics.Stats stats = metrics.stats();
+    // buckets of 10 ms, 50 ms and beyond the last bound
+    assertThat(stats.recoveryMillisHistogram).containsExactly(0, 0, 1, 0, 1, 0, 0, 0, 0, 0, 0, 0, 1);
+    // buckets of no event, 50 events and beyond the last bound
+    assertThat(stats.replayedEventsHistogram).containsExactly(1, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 1);
+    assertThat(stats.slowestEntityId).isEqualTo("#3");
+  }
+
+  @Test
+  public void isEmptyBeforeAnyRecovery() {
+    RecoveryMetrics.Stats stats = new RecoveryMetrics().stats();
+
+    assertThat(stats.activations).isZero();
+    assertThat(stats.meanRecoveryMillis).isZero();
+  }
+}
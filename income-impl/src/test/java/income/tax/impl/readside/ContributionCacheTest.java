@@ -0,0 +1,92 @@
+package income.tax.impl.readside;
+
+import com.typesafe.config.ConfigFactory;
+import income.tax.contribution.api.Contribution;
+import org.junit.jupiter.api.Test;
+import org.pcollections.HashTreePMap;
+import org.pcollections.PMap;
+import org.pcollections.PSequence;
+import org.pcollections.TreePVector;
+
+import java.time.Month;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContributionCacheTest {
+
+  private static final PMap<Month, PSequence<Contribution>> CONTRIBUTIONS =
+      HashTreePMap.singleton(Month.JANUARY, TreePVector.empty());
+
+  private final ContributionCache cache = new ContributionCache(
+      ConfigFactory.parseString("max-size = 10, expire-after-write = 1m, invalidation = local"), Optional.empty());
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private final Supplier<CompletionStage<PMap<Month, PSequence<Contribution>>>> loader = () -> {
+    loads.incrementAndGet();
+    return CompletableFuture.completedFuture(CONTRIBUTIONS);
+  };
+
+  @Test
+  public void loadsOnce() throws Exception {
+    cache.get("#1", 2019, loader).toCompletableFuture().get();
+
+    assertThat(cache.get("#1", 2019, loader).toCompletableFuture().get()).isEqualTo(CONTRIBUTIONS);
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  public void reloadsWhenInvalidated() throws Exception {
+    cache.get("#1", 2019, loader).toCompletableFuture().get();
+    cache.get("#2", 2019, loader).toCompletableFuture().get();
+
+    cache.invalidate("#1", 2019);
+    cache.get("#1", 2019, loader).toCompletableFuture().get();
+    cache.get("#2", 2019, loader).toCompletableFuture().get();
+
+    assertThat(loads).hasValue(3);
+  }
+
+  @Test
+  public void doesNotKeepContributionsLoadedBeforeAnInvalidation() throws Exception {
+    CompletableFuture<PMap<Month, PSequence<Contribution>>> loading = new CompletableFuture<>();
+    CompletionStage<PMap<Month, PSequence<Contribution>>> stale = cache.get("#1", 2019, () -> loading);
+
+    cache.invalidate("#1", 2019);
+    loading.complete(CONTRIBUTIONS);
+
+    assertThat(stale.toCompletableFuture().get()).isEqualTo(CONTRIBUTIONS);
+    cache.get("#1", 2019, loader).toCompletableFuture().get();
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  public void keepsTheLoadsOfOtherContributorsWhenInvalidating() throws Exception {
+    CompletableFuture<PMap<Month, PSequence<Contribution>>> loading = new CompletableFuture<>();
+    cache.get("#1", 2019, () -> {
+      loads.incrementAndGet();
+      return loading;
+    });
+
+    cache.invalidate("#2", 2019);
+    loading.complete(CONTRIBUTIONS);
+
+    assertThat(cache.get("#1", 2019, loader).toCompletableFuture().get()).isEqualTo(CONTRIBUTIONS);
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  public void reloadsAfterAFailedLoad() throws Exception {
+    CompletableFuture<PMap<Month, PSequence<Contribution>>> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException("unavailable"));
+    cache.get("#1", 2019, () -> failed);
+
+    assertThat(cache.get("#1", 2019, loader).toCompletableFuture().get()).isEqualTo(CONTRIBUTIONS);
+    assertThat(loads).hasValue(1);
+  }
+}
@@ -0,0 +1,28 @@
+package income.tax.impl.tools;
+
+import income.tax.api.Income;
+import income.tax.api.IncomeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Month;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncomeUtilsTest {
+
+  @Test
+  public void groupsSpreadOutMonthsByIncome() {
+    Income yearlyIncome = IncomeUtils.yearIncome(12_005, 2019, IncomeType.estimated);
+
+    Map<Long, Set<Month>> monthsByIncome =
+        IncomeUtils.monthsByIncome(IncomeUtils.spreadOutOverMonths(yearlyIncome));
+
+    assertThat(monthsByIncome).containsOnlyKeys(1_000L, 1_005L);
+    assertThat(monthsByIncome.keySet()).containsExactly(1_000L, 1_005L);
+    assertThat(monthsByIncome.get(1_000L)).isEqualTo(EnumSet.range(Month.JANUARY, Month.NOVEMBER));
+    assertThat(monthsByIncome.get(1_005L)).containsExactly(Month.DECEMBER);
+  }
+}
@@ -0,0 +1,217 @@
+package income.tax.common;
+
+import com.typesafe.config.Config;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A named, fixed size executor with a bounded queue, isolating a kind of work from the rest of the process.
+ * <p>
+ * Tasks submitted when the queue is full are rejected with a {@link RejectedExecutionException}, failing the
+ * future they belong to instead of growing the backlog.
+ * The queue depth and utilisation are available from {@link #stats()} and as the JMX bean
+ * {@code income.tax:type=Executor,name=<name>}.
+ * <p>
+ * The services shut their executors down from a stop hook of their application lifecycle: a reloaded application
+ * (dev mode) does not keep the threads nor the JMX bean of the previous one.
+ */
+public class MonitoredExecutor implements Executor {
+  private static Logger logger = LoggerFactory.getLogger(MonitoredExecutor.class);
+
+  private final String name;
+  private final int threads;
+  private final ThreadPoolExecutor executor;
+  private final long startedAt = System.nanoTime();
+  private volatile ObjectName objectName; // set once registered
+
+  private final LongAdder busyNanos = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  public MonitoredExecutor(String name, int threads, int queueSize) {
+    if (threads <= 0 || queueSize <= 0) {
+      throw new IllegalArgumentException("Executor " + name + ": threads and queue size must be positive");
+    }
+    this.name = name;
+    this.threads = threads;
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(queueSize), threadFactory(name));
+  }
+
+  /**
+   * Creates an executor from its configuration: {@code threads} (0 for one per available processor)
+   * and {@code queue-size}.
+   */
+  public static MonitoredExecutor fromConfig(String name, Config config) {
+    int threads = config.getInt("threads");
+    MonitoredExecutor executor = new MonitoredExecutor(
+        name, threads == 0 ? Runtime.getRuntime().availableProcessors() : threads, config.getInt("queue-size"));
+    executor.registerMBean();
+    logger.info("Executor {}: {} threads, queue size {}", name, executor.threads, config.getInt("queue-size"));
+    return executor;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    try {
+      executor.execute(() -> {
+        long start = System.nanoTime();
+        try {
+          command.run();
+        } finally {
+          busyNanos.add(System.nanoTime() - start);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new RejectedExecutionException("Executor " + name + " is saturated", e);
+    }
+  }
+
+  /**
+   * Runs the supplier on this executor, the returned future failing if the executor is saturated.
+   */
+  public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+    try {
+      return CompletableFuture.supplyAsync(supplier, this);
+    } catch (RejectedExecutionException e) {
+      CompletableFuture<T> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Shuts the executor down, the submitted tasks still being run, and unregisters its JMX bean.
+   */
+  public void shutdown() {
+    executor.shutdown();
+    ObjectName registered = objectName;
+    if (registered != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(registered);
+      } catch (JMException e) {
+        logger.warn("Metrics of executor {} not unregistered", name, e);
+      }
+      objectName = null;
+    }
+    logger.info("Executor {} shut down", name);
+  }
+
+  public Stats stats() {
+    long elapsed = Math.max(1L, System.nanoTime() - startedAt);
+    return new Stats(
+        name,
+        threads,
+        executor.getActiveCount(),
+        executor.getQueue().size(),
+        executor.getCompletedTaskCount(),
+        rejected.sum(),
+        Math.min(1.0, (double) busyNanos.sum() / ((double) elapsed * threads)));
+  }
+
+  private void registerMBean() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName objectName = new ObjectName("income.tax:type=Executor,name=" + ObjectName.quote(name));
+      // a new executor of the same name (a restarted application) replaces the previous one
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+      server.registerMBean(new StatsBean(), objectName);
+      this.objectName = objectName;
+    } catch (JMException e) {
+      logger.warn("Metrics of executor {} not registered", name, e);
+    }
+  }
+
+  private static ThreadFactory threadFactory(String name) {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  @Value
+  public static class Stats {
+    public final String name;
+    public final int threads;
+    public final int activeThreads;
+    public final int queueDepth;
+    public final long completedTasks;
+    public final long rejectedTasks;
+    // share of the thread time spent running tasks since the executor was created
+    public final double utilisation;
+  }
+
+  public interface StatsMXBean {
+    int getThreads();
+
+    int getActiveThreads();
+
+    int getQueueDepth();
+
+    long getCompletedTasks();
+
+    long getRejectedTasks();
+
+    double getUtilisation();
+  }
+
+  private class StatsBean implements StatsMXBean {
+    @Override
+    public int getThreads() {
+      return threads;
+    }
+
+    @Override
+    public int getActiveThreads() {
+      return executor.getActiveCount();
+    }
+
+    @Override
+    public int getQueueDepth() {
+      return executor.getQueue().size();
+    }
+
+    @Override
+    public long getCompletedTasks() {
+      return executor.getCompletedTaskCount();
+    }
+
+    @Override
+    public long getRejectedTasks() {
+      return rejected.sum();
+    }
+
+    @Override
+    public double getUtilisation() {
+      return stats().utilisation;
+    }
+  }
+}
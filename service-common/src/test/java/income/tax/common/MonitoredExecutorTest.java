@@ -0,0 +1,79 @@
+package income.tax.common;
+
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MonitoredExecutorTest {
+
+  @Test
+  public void runsOnNamedThreads() throws Exception {
+    MonitoredExecutor executor = new MonitoredExecutor("test", 1, 10);
+
+    String threadName = executor.supplyAsync(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+    assertThat(threadName).isEqualTo("test-1");
+  }
+
+  @Test
+  public void reportsQueueDepthAndRejections() throws Exception {
+    MonitoredExecutor executor = new MonitoredExecutor("test", 1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+
+    CompletableFuture<Boolean> running = executor.supplyAsync(() -> {
+      started.countDown();
+      return await(release);
+    });
+    started.await(5, TimeUnit.SECONDS);
+    CompletableFuture<Boolean> queued = executor.supplyAsync(() -> true);
+    CompletableFuture<Boolean> rejected = executor.supplyAsync(() -> true);
+
+    MonitoredExecutor.Stats stats = executor.stats();
+    assertThat(stats.activeThreads).isEqualTo(1);
+    assertThat(stats.queueDepth).isEqualTo(1);
+    assertThat(stats.rejectedTasks).isEqualTo(1);
+    assertThatThrownBy(rejected::get)
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(RejectedExecutionException.class);
+
+    release.countDown();
+    assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(executor.stats().utilisation).isBetween(0.0, 1.0);
+  }
+
+  @Test
+  public void shutdownUnregistersTheMetrics() throws Exception {
+    MonitoredExecutor executor = MonitoredExecutor.fromConfig(
+        "shut-down", ConfigFactory.parseString("threads = 1, queue-size = 1"));
+    ObjectName objectName = new ObjectName("income.tax:type=Executor,name=" + ObjectName.quote("shut-down"));
+    assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)).isTrue();
+
+    executor.shutdown();
+
+    assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)).isFalse();
+    assertThatThrownBy(() -> executor.supplyAsync(() -> true).get())
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(RejectedExecutionException.class);
+  }
+
+  private static boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}